@@ -0,0 +1,55 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Accounts shared by all benchmark threads. With probability hotShare an
+// operation picks one of the few hot accounts, otherwise any account at random,
+// so hotShare=0 is close to uncontended and hotShare=1 is maximum contention.
+// Accounts are rebuilt every iteration so their journals do not grow across the run.
+@State(Scope.Benchmark)
+public class AccountPool {
+
+    @Param({"10000"})
+    public int accounts;
+
+    @Param({"16"})
+    public int hotAccounts;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double hotShare;
+
+    BankAccount[] pool;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        User holder = new User("U001", "Bench User", "bench@email.com", 30);
+        pool = new BankAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            pool[i] = new BankAccount(String.valueOf(10_000_000 + i), holder, 1_000_000_000.0);
+        }
+    }
+
+    BankAccount pick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < hotShare) {
+            return pool[random.nextInt(Math.min(hotAccounts, accounts))];
+        }
+        return pool[random.nextInt(accounts)];
+    }
+
+    BankAccount pickOther(BankAccount first) {
+        BankAccount second = pick();
+        while (second == first) {
+            second = pick();
+        }
+        return second;
+    }
+}
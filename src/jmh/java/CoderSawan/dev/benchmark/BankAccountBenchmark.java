@@ -0,0 +1,56 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankAccountBenchmark {
+
+    @Benchmark
+    public double deposit(AccountPool accounts) {
+        BankAccount account = accounts.pick();
+        account.deposit(1.0);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public double withdraw(AccountPool accounts) {
+        BankAccount account = accounts.pick();
+        account.withdraw(1.0);
+        return account.getBalance();
+    }
+
+    // Balance probing: every attempt is rejected
+    @Benchmark
+    public Object withdrawRejected(AccountPool accounts) {
+        try {
+            accounts.pick().withdraw(1e12);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public TransactionResult tryWithdrawRejected(AccountPool accounts) {
+        return accounts.pick().tryWithdraw(1e12);
+    }
+
+    @Benchmark
+    public double getBalance(AccountPool accounts) {
+        return accounts.pick().getBalance();
+    }
+}
@@ -0,0 +1,56 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int entries;
+
+    private BankAccount account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User holder = new User("U001", "Bench User", "bench@email.com", 30);
+        account = new BankAccount("10000001", holder, 0.0);
+        for (int i = 0; i < entries; i++) {
+            account.deposit(1.0);
+        }
+    }
+
+    @Benchmark
+    public List<String> getHistory() {
+        return account.getTransactionHistory();
+    }
+
+    @Benchmark
+    public void readLastEntries(Blackhole blackhole) {
+        List<String> history = account.getTransactionHistory();
+        for (int i = Math.max(0, history.size() - 10); i < history.size(); i++) {
+            blackhole.consume(history.get(i));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterestBenchmark {
+
+    private final TransactionService service = new TransactionService();
+
+    @Benchmark
+    public double calculateInterest(AccountPool accounts) {
+        return service.calculateInterest(accounts.pick(), 4.5, 12);
+    }
+
+    @Benchmark
+    public double calculateInterestAllAccounts(AccountPool accounts) {
+        double total = 0;
+        for (BankAccount account : accounts.pool) {
+            total += service.calculateInterest(account, 4.5, 12);
+        }
+        return total;
+    }
+}
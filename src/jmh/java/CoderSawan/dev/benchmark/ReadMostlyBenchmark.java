@@ -0,0 +1,46 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BalanceView;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Balance inquiries running next to transfers at the 20:1 ratio we see in
+// production; run with -Djmh.threads=20 (or a multiple) so the groups fill
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadMostlyBenchmark {
+
+    private final TransactionService service = new TransactionService();
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(19)
+    public BalanceView view(AccountPool accounts) {
+        return accounts.pick().view();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public void transfer(AccountPool accounts) {
+        BankAccount from = accounts.pick();
+        service.tryTransfer(from, accounts.pickOther(from), 1.0);
+    }
+}
@@ -0,0 +1,60 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+    private final TransactionService service = new TransactionService();
+
+    // Each thread moves money between its own two accounts: no contention at all
+    @State(Scope.Thread)
+    public static class PrivatePair {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        BankAccount from;
+        BankAccount to;
+
+        private final int id = NEXT.getAndIncrement();
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            User holder = new User("U001", "Bench User", "bench@email.com", 30);
+            from = new BankAccount(String.valueOf(30_000_000 + id * 2), holder, 1_000_000_000.0);
+            to = new BankAccount(String.valueOf(30_000_001 + id * 2), holder, 0.0);
+        }
+    }
+
+    @Benchmark
+    public void transferUncontended(PrivatePair pair) {
+        service.transfer(pair.from, pair.to, 1.0);
+    }
+
+    // Contention is driven by AccountPool.hotShare
+    @Benchmark
+    public void transferShared(AccountPool accounts) {
+        BankAccount from = accounts.pick();
+        service.transfer(from, accounts.pickOther(from), 1.0);
+    }
+}
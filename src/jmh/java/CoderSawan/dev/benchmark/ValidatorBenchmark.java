@@ -0,0 +1,77 @@
+package CoderSawan.dev.benchmark;
+
+import CoderSawan.dev.validator.AccountValidator;
+import CoderSawan.dev.validator.BulkAccountValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+    @Param({"100000"})
+    public int records;
+
+    private final AccountValidator validator = new AccountValidator();
+    private final BulkAccountValidator bulkValidator = new BulkAccountValidator();
+    private String[] accountNumbers;
+    private String[] emails;
+    private String accountFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountNumbers = new String[records];
+        emails = new String[records];
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            accountNumbers[i] = i % 10 == 0 ? "ACC" + i : String.valueOf(10_000_000 + i);
+            emails[i] = i % 10 == 0 ? "user" + i : "user" + i + "@bank.com";
+            file.append(accountNumbers[i]).append('\n');
+        }
+        accountFile = file.toString();
+    }
+
+    @Benchmark
+    public int isValidAccountNumber() {
+        int valid = 0;
+        for (String accountNumber : accountNumbers) {
+            if (validator.isValidAccountNumber(accountNumber)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isValidEmail() {
+        int valid = 0;
+        for (String email : emails) {
+            if (validator.isValidEmail(email)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public BitSet bulkAccountNumbers() {
+        return bulkValidator.invalidAccountNumbers(accountFile);
+    }
+}
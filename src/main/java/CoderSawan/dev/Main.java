@@ -1,7 +1,85 @@
 package CoderSawan.dev;
 
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import CoderSawan.dev.server.BankingServer;
+import CoderSawan.dev.server.LoadGenerator;
+import CoderSawan.dev.server.RequestExecutors;
+import CoderSawan.dev.service.TransactionService;
+
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+// Usage:
+//   serve [port] [--demo]                 start the HTTP front end (default port 8080);
+//                                         --demo opens a funded account for the load generator
+//   load [port] [connections] [requests]  run the load generator against a local server,
+//                                         starting one in-process if nothing listens on the port
+//                                         (a server started separately needs serve --demo)
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
+
+    private static final String LOAD_ACCOUNT = "10000001";
+    private static final String MAX_IDLE_CONNECTIONS = "sun.net.httpserver.maxIdleConnections";
+
+    public static void main(String[] args) throws Exception {
+        // The JDK server closes keep-alive connections beyond 200 idle ones by
+        // default and reads this once, so it is set before any server exists;
+        // an explicit -D setting wins
+        if (System.getProperty(MAX_IDLE_CONNECTIONS) == null) {
+            System.setProperty(MAX_IDLE_CONNECTIONS, "65536");
+        }
+        String mode = args.length > 0 ? args[0] : "serve";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+
+        switch (mode) {
+            case "serve":
+                boolean demo = args.length > 2 && args[2].equals("--demo");
+                BankingServer server = startServer(port, demo);
+                System.out.println("Listening on port " + server.getPort()
+                        + (RequestExecutors.virtualThreadsAvailable() ? " (virtual threads)" : " (platform thread pool)"));
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                break;
+            case "load":
+                int connections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+                int requests = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+                runLoad(port, connections, requests);
+                break;
+            default:
+                System.err.println("Unknown mode: " + mode + " (expected serve or load)");
+                System.exit(2);
+        }
+    }
+
+    private static BankingServer startServer(int port, boolean demo) throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        if (demo) {
+            User holder = new User("U001", "Load Test", "load@example.com", 30);
+            registry.register(new BankAccount(LOAD_ACCOUNT, holder, 1000.0));
+        }
+
+        BankingServer server = new BankingServer(new InetSocketAddress(port), registry, new TransactionService());
+        server.start();
+        return server;
+    }
+
+    private static void runLoad(int port, int connections, int requests) throws Exception {
+        BankingServer server = null;
+        try {
+            server = startServer(port, true);
+            System.out.println("Started in-process server on port " + server.getPort());
+        } catch (BindException e) {
+            System.out.println("Using the server already listening on port " + port);
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(new InetSocketAddress("localhost", port),
+                    connections, requests, "/accounts/balance?accountNumber=" + LOAD_ACCOUNT);
+            System.out.println(generator.run(5, TimeUnit.MINUTES));
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
     }
-}
\ No newline at end of file
+}
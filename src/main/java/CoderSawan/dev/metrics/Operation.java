@@ -0,0 +1,9 @@
+package CoderSawan.dev.metrics;
+
+public enum Operation {
+    TRANSFER,
+    TRANSFER_BATCH,
+    INTEREST,
+    DEPOSIT,
+    WITHDRAW
+}
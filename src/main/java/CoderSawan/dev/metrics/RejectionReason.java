@@ -0,0 +1,10 @@
+package CoderSawan.dev.metrics;
+
+public enum RejectionReason {
+    INVALID_REQUEST,
+    INACTIVE_ACCOUNT,
+    LIMIT_EXCEEDED,
+    INSUFFICIENT_FUNDS,
+    VELOCITY_LIMIT_EXCEEDED,
+    FRAUD_SUSPECTED
+}
@@ -0,0 +1,223 @@
+package CoderSawan.dev.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// Operation counts, rejection counts and latency histograms for
+// TransactionService: transfers, batches, interest, and the deposits and
+// withdrawals made through it. Counters are LongAdders (striped per core) and the
+// histograms are lock-free, so recording stays in the tens of nanoseconds.
+public class TransactionMetrics implements TransactionMetricsMBean {
+
+    public static final String OBJECT_NAME = "CoderSawan.dev:type=TransactionMetrics";
+
+    private final LongAdder[] operations = newAdders(Operation.values().length);
+    private final LongAdder[] rejections = newAdders(RejectionReason.values().length);
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+
+    public TransactionMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public void record(Operation operation, long nanos) {
+        operations[operation.ordinal()].increment();
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    public void reject(RejectionReason reason) {
+        rejections[reason.ordinal()].increment();
+    }
+
+    public long getCount(Operation operation) {
+        return operations[operation.ordinal()].sum();
+    }
+
+    public long getRejections(RejectionReason reason) {
+        return rejections[reason.ordinal()].sum();
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    // Registers with the platform MBean server under OBJECT_NAME, replacing
+    // an earlier registration
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics MBean", e);
+        }
+    }
+
+    @Override
+    public long getTransferCount() {
+        return getCount(Operation.TRANSFER);
+    }
+
+    @Override
+    public long getTransferBatchCount() {
+        return getCount(Operation.TRANSFER_BATCH);
+    }
+
+    @Override
+    public long getInterestCount() {
+        return getCount(Operation.INTEREST);
+    }
+
+    @Override
+    public long getDepositCount() {
+        return getCount(Operation.DEPOSIT);
+    }
+
+    @Override
+    public long getWithdrawCount() {
+        return getCount(Operation.WITHDRAW);
+    }
+
+    @Override
+    public long getRejectedInvalidRequest() {
+        return getRejections(RejectionReason.INVALID_REQUEST);
+    }
+
+    @Override
+    public long getRejectedInactiveAccount() {
+        return getRejections(RejectionReason.INACTIVE_ACCOUNT);
+    }
+
+    @Override
+    public long getRejectedLimitExceeded() {
+        return getRejections(RejectionReason.LIMIT_EXCEEDED);
+    }
+
+    @Override
+    public long getRejectedInsufficientFunds() {
+        return getRejections(RejectionReason.INSUFFICIENT_FUNDS);
+    }
+
+    @Override
+    public long getRejectedVelocityLimit() {
+        return getRejections(RejectionReason.VELOCITY_LIMIT_EXCEEDED);
+    }
+
+    @Override
+    public long getRejectedFraudSuspected() {
+        return getRejections(RejectionReason.FRAUD_SUSPECTED);
+    }
+
+    @Override
+    public long getTransferLatencyP50() {
+        return getLatency(Operation.TRANSFER).getPercentile(50);
+    }
+
+    @Override
+    public long getTransferLatencyP90() {
+        return getLatency(Operation.TRANSFER).getPercentile(90);
+    }
+
+    @Override
+    public long getTransferLatencyP99() {
+        return getLatency(Operation.TRANSFER).getPercentile(99);
+    }
+
+    @Override
+    public long getTransferLatencyP999() {
+        return getLatency(Operation.TRANSFER).getPercentile(99.9);
+    }
+
+    @Override
+    public long getTransferLatencyMax() {
+        return getLatency(Operation.TRANSFER).getMax();
+    }
+
+    @Override
+    public long getTransferBatchLatencyP50() {
+        return getLatency(Operation.TRANSFER_BATCH).getPercentile(50);
+    }
+
+    @Override
+    public long getTransferBatchLatencyP99() {
+        return getLatency(Operation.TRANSFER_BATCH).getPercentile(99);
+    }
+
+    @Override
+    public long getTransferBatchLatencyMax() {
+        return getLatency(Operation.TRANSFER_BATCH).getMax();
+    }
+
+    @Override
+    public long getDepositLatencyP50() {
+        return getLatency(Operation.DEPOSIT).getPercentile(50);
+    }
+
+    @Override
+    public long getDepositLatencyP99() {
+        return getLatency(Operation.DEPOSIT).getPercentile(99);
+    }
+
+    @Override
+    public long getDepositLatencyMax() {
+        return getLatency(Operation.DEPOSIT).getMax();
+    }
+
+    @Override
+    public long getWithdrawLatencyP50() {
+        return getLatency(Operation.WITHDRAW).getPercentile(50);
+    }
+
+    @Override
+    public long getWithdrawLatencyP99() {
+        return getLatency(Operation.WITHDRAW).getPercentile(99);
+    }
+
+    @Override
+    public long getWithdrawLatencyMax() {
+        return getLatency(Operation.WITHDRAW).getMax();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : operations) {
+            adder.reset();
+        }
+        for (LongAdder adder : rejections) {
+            adder.reset();
+        }
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+    }
+}
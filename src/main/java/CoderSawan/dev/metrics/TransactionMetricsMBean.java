@@ -0,0 +1,57 @@
+package CoderSawan.dev.metrics;
+
+// JMX view of TransactionMetrics; latencies are in nanoseconds
+public interface TransactionMetricsMBean {
+
+    long getTransferCount();
+
+    long getTransferBatchCount();
+
+    long getInterestCount();
+
+    long getDepositCount();
+
+    long getWithdrawCount();
+
+    long getRejectedInvalidRequest();
+
+    long getRejectedInactiveAccount();
+
+    long getRejectedLimitExceeded();
+
+    long getRejectedInsufficientFunds();
+
+    long getRejectedVelocityLimit();
+
+    long getRejectedFraudSuspected();
+
+    long getTransferLatencyP50();
+
+    long getTransferLatencyP90();
+
+    long getTransferLatencyP99();
+
+    long getTransferLatencyP999();
+
+    long getTransferLatencyMax();
+
+    long getTransferBatchLatencyP50();
+
+    long getTransferBatchLatencyP99();
+
+    long getTransferBatchLatencyMax();
+
+    long getDepositLatencyP50();
+
+    long getDepositLatencyP99();
+
+    long getDepositLatencyMax();
+
+    long getWithdrawLatencyP50();
+
+    long getWithdrawLatencyP99();
+
+    long getWithdrawLatencyMax();
+
+    void reset();
+}
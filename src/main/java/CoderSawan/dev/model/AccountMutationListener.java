@@ -0,0 +1,37 @@
+package CoderSawan.dev.model;
+
+// Told about every journal entry an account records, after the entry is in
+// the journal. Plain deposits and withdrawals call it without holding the
+// account's monitor, but transfers and batches call it while holding the
+// monitors of every account involved, so implementations must not take
+// account monitors. They may block, which holds those monitors as long.
+// Calls for one account can arrive out of sequence order.
+public interface AccountMutationListener {
+
+    void onMutation(BankAccount account, TransactionType type, long amountMinor, long sequence, long timestamp);
+
+    // Told when the account moves to another tier; tiers are not journaled
+    default void onTierChange(BankAccount account, AccountTier tier) {
+    }
+
+    default AccountMutationListener andThen(AccountMutationListener next) {
+        if (next == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        AccountMutationListener first = this;
+        return new AccountMutationListener() {
+            @Override
+            public void onMutation(BankAccount account, TransactionType type, long amountMinor, long sequence,
+                                   long timestamp) {
+                first.onMutation(account, type, amountMinor, sequence, timestamp);
+                next.onMutation(account, type, amountMinor, sequence, timestamp);
+            }
+
+            @Override
+            public void onTierChange(BankAccount account, AccountTier tier) {
+                first.onTierChange(account, tier);
+                next.onTierChange(account, tier);
+            }
+        };
+    }
+}
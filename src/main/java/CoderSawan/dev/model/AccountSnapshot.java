@@ -0,0 +1,41 @@
+package CoderSawan.dev.model;
+
+// Consistent point-in-time view of an account's balance and status
+public class AccountSnapshot {
+    private final long balanceMinor;
+    private final boolean active;
+    private final long nextSequence;
+
+    public AccountSnapshot(long balanceMinor, boolean active, long nextSequence) {
+        this.balanceMinor = balanceMinor;
+        this.active = active;
+        this.nextSequence = nextSequence;
+    }
+
+    // Getters
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public double getBalance() {
+        return Money.toMajor(balanceMinor);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // Sequence of the first journal entry not reflected in this view
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountSnapshot{" +
+                "balance=" + getBalance() +
+                ", active=" + active +
+                ", nextSequence=" + nextSequence +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package CoderSawan.dev.model;
+
+// Pricing tier of an account; fee and limit policies are keyed by it
+public enum AccountTier {
+    STANDARD,
+    PREMIUM,
+    BUSINESS
+}
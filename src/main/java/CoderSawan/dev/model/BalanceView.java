@@ -0,0 +1,33 @@
+package CoderSawan.dev.model;
+
+// Balance and status of an account read at the same instant
+public final class BalanceView {
+    private final long balanceMinor;
+    private final boolean active;
+
+    public BalanceView(long balanceMinor, boolean active) {
+        this.balanceMinor = balanceMinor;
+        this.active = active;
+    }
+
+    // Getters
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public double getBalance() {
+        return Money.toMajor(balanceMinor);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceView{" +
+                "balance=" + getBalance() +
+                ", active=" + active +
+                '}';
+    }
+}
@@ -1,17 +1,70 @@
 package CoderSawan.dev.model;
 
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
+import java.util.Set;
 
 public class BankAccount {
+
+    private static final VarHandle STATE;
+    private static final VarHandle PENDING;
+
+    // Low bit of state
+    private static final long CLOSED = 1L;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(BankAccount.class, "state", long.class);
+            PENDING = lookup.findVarHandle(BankAccount.class, "pendingEntries", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String accountNumber;
     private User accountHolder;
-    private double balance;
-    private boolean isActive;
-    private List<String> transactionHistory;
+    // Balance in minor units (cents) shifted left by one, with the low bit set
+    // once the account is closed. Balance and status change together by CAS,
+    // so a reader gets a consistent pair from one volatile read without
+    // blocking or writing anything, and no credit can land on a closed account.
+    private volatile long state;
+    private final TransactionJournal journal;
+    private volatile AccountMutationListener mutationListener;
+    private volatile AccountTier tier = AccountTier.STANDARD;
+    // Mutations whose state change is done but whose journal entry is not yet
+    // appended; snapshot() waits for zero so state and sequence agree
+    private volatile int pendingEntries;
 
     public BankAccount(String accountNumber, User accountHolder, double initialBalance) {
+        this(validate(accountNumber, accountHolder, initialBalance), accountHolder,
+                Money.toMinor(initialBalance), true, new TransactionJournal());
+
+        long initial = balanceOf(state);
+        if (initial > 0) {
+            journal.append(TransactionType.INITIAL_DEPOSIT, initial);
+        }
+    }
+
+    private BankAccount(String accountNumber, User accountHolder, long balance, boolean isActive,
+                        TransactionJournal journal) {
+        this.accountNumber = accountNumber;
+        this.accountHolder = accountHolder;
+        this.state = (balance << 1) | (isActive ? 0 : CLOSED);
+        this.journal = journal;
+    }
+
+    private static long balanceOf(long state) {
+        return state >> 1;
+    }
+
+    private static boolean activeOf(long state) {
+        return (state & CLOSED) == 0;
+    }
+
+    private static String validate(String accountNumber, User accountHolder, double initialBalance) {
         // Validation
         if (accountNumber == null || accountNumber.trim().isEmpty()) {
             throw new IllegalArgumentException("Account number cannot be empty");
@@ -22,64 +75,359 @@ public class BankAccount {
         if (initialBalance < 0) {
             throw new IllegalArgumentException("Initial balance cannot be negative");
         }
+        return accountNumber;
+    }
 
-        this.accountNumber = accountNumber;
-        this.accountHolder = accountHolder;
-        this.balance = initialBalance;
-        this.isActive = true;
-        this.transactionHistory = new ArrayList<>();
-
-        if (initialBalance > 0) {
-            transactionHistory.add("Initial deposit: " + initialBalance);
-        }
+    // Rebuilds an account from a checkpoint. Its journal starts empty and
+    // numbers new entries from nextSequence.
+    public static BankAccount restore(String accountNumber, User accountHolder, long balanceMinor,
+                                      boolean active, long nextSequence) {
+        validate(accountNumber, accountHolder, balanceMinor);
+        return new BankAccount(accountNumber, accountHolder, balanceMinor, active,
+                new TransactionJournal(nextSequence));
     }
 
     public void deposit(double amount) {
-        if (!isActive) {
+        if (!isActive()) {
             throw new IllegalStateException("Account is not active");
         }
-        if (amount <= 0) {
+        long minor = Money.toMinor(amount);
+        if (minor <= 0) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
 
-        balance += amount;
-        transactionHistory.add("Deposited: " + amount);
+        credit(TransactionType.DEPOSIT, minor);
+    }
+
+    // Posts interest computed elsewhere (see InterestAccrualEngine)
+    public void creditInterest(long amountMinor) {
+        if (!isActive()) {
+            throw new IllegalStateException("Account is not active");
+        }
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Interest amount must be positive");
+        }
+
+        credit(TransactionType.INTEREST, amountMinor);
+    }
+
+    private void credit(TransactionType type, long minor) {
+        long sequence;
+        PENDING.getAndAdd(this, 1);
+        try {
+            if (tryAdd(minor) != TransactionResult.SUCCESS) {
+                // Closed since the check in the caller
+                throw new IllegalStateException("Account is not active");
+            }
+            sequence = journal.append(type, minor);
+        } finally {
+            PENDING.getAndAdd(this, -1);
+        }
+        notifyListener(type, minor, sequence);
+    }
+
+    // Gives back a debit whose transfer could not be completed. Allowed on a
+    // closed account: the money never left it, so there is nowhere else to put it.
+    public void reverseDebit(long amountMinor) {
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Reversal amount must be positive");
+        }
+
+        long sequence;
+        PENDING.getAndAdd(this, 1);
+        try {
+            STATE.getAndAdd(this, amountMinor << 1);
+            sequence = journal.append(TransactionType.REVERSAL, amountMinor);
+        } finally {
+            PENDING.getAndAdd(this, -1);
+        }
+        notifyListener(TransactionType.REVERSAL, amountMinor, sequence);
     }
 
     public void withdraw(double amount) {
-        if (!isActive) {
+        TransactionResult result = tryWithdraw(amount);
+        if (result != TransactionResult.SUCCESS) {
+            throw withdrawalFailure(result, amount, 0);
+        }
+    }
+
+    // Debits amount and fee in a single step, so the fee can never be left unpaid
+    public void withdraw(double amount, double fee) {
+        TransactionResult result = tryWithdraw(amount, fee);
+        if (result != TransactionResult.SUCCESS) {
+            throw withdrawalFailure(result, amount, fee);
+        }
+    }
+
+    // Same as withdraw, but reports rejections as a result code and never
+    // throws or allocates for them
+    public TransactionResult tryWithdraw(double amount) {
+        return tryWithdraw(amount, 0);
+    }
+
+    public TransactionResult tryWithdraw(double amount, double fee) {
+        if (!isActive()) {
+            return TransactionResult.INACTIVE_ACCOUNT;
+        }
+        long minor = Money.toPositiveMinor(amount);
+        long feeMinor = fee == 0 ? 0 : Money.toPositiveMinor(fee);
+        if (minor <= 0 || feeMinor < 0) {
+            return TransactionResult.INVALID_AMOUNT;
+        }
+
+        long sequence;
+        long feeSequence = 0;
+        PENDING.getAndAdd(this, 1);
+        try {
+            TransactionResult debited = tryAdd(-(minor + feeMinor));
+            if (debited != TransactionResult.SUCCESS) {
+                return debited;
+            }
+            sequence = journal.append(TransactionType.WITHDRAWAL, minor);
+            if (feeMinor > 0) {
+                feeSequence = journal.append(TransactionType.FEE, feeMinor);
+            }
+        } finally {
+            PENDING.getAndAdd(this, -1);
+        }
+        notifyListener(TransactionType.WITHDRAWAL, minor, sequence);
+        if (feeMinor > 0) {
+            notifyListener(TransactionType.FEE, feeMinor, feeSequence);
+        }
+        return TransactionResult.SUCCESS;
+    }
+
+    // Builds the exception the throwing methods have always reported
+    private RuntimeException withdrawalFailure(TransactionResult result, double amount, double fee) {
+        switch (result) {
+            case INACTIVE_ACCOUNT:
+                return new IllegalStateException("Account is not active");
+            case INSUFFICIENT_FUNDS:
+                return new IllegalArgumentException("Insufficient funds. Balance: " + getBalance());
+            default:
+                // toMinor throws its own message for non-finite or out-of-range amounts
+                if (Money.toMinor(amount) <= 0) {
+                    return new IllegalArgumentException("Withdrawal amount must be positive");
+                }
+                Money.toMinor(fee);
+                return new IllegalArgumentException("Fee cannot be negative");
+        }
+    }
+
+    // Applies a balance change with CAS, retrying on contention. Fails only
+    // when the account is closed or a debit is not covered.
+    private TransactionResult tryAdd(long deltaMinor) {
+        long current;
+        do {
+            current = state;
+            if (!activeOf(current)) {
+                return TransactionResult.INACTIVE_ACCOUNT;
+            }
+            if (deltaMinor < 0 && -deltaMinor > balanceOf(current)) {
+                return TransactionResult.INSUFFICIENT_FUNDS;
+            }
+        } while (!STATE.weakCompareAndSet(this, current, current + (deltaMinor << 1)));
+        return TransactionResult.SUCCESS;
+    }
+
+    // Applies several journal entries with one balance update (used by batch
+    // transfers). Returns false, changing nothing, if a net debit is not covered.
+    public boolean applyNetted(long netMinor, TransactionType[] types, long[] amounts, int count) {
+        if (!isActive()) {
             throw new IllegalStateException("Account is not active");
         }
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be positive");
+        long[] sequences = new long[count];
+        PENDING.getAndAdd(this, 1);
+        try {
+            if (netMinor != 0) {
+                TransactionResult applied = tryAdd(netMinor);
+                if (applied == TransactionResult.INSUFFICIENT_FUNDS) {
+                    return false;
+                }
+                if (applied == TransactionResult.INACTIVE_ACCOUNT) {
+                    throw new IllegalStateException("Account is not active");
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                sequences[i] = journal.append(types[i], amounts[i]);
+            }
+        } finally {
+            PENDING.getAndAdd(this, -1);
         }
-        if (amount > balance) {
-            throw new IllegalArgumentException("Insufficient funds. Balance: " + balance);
+        for (int i = 0; i < count; i++) {
+            notifyListener(types[i], amounts[i], sequences[i]);
         }
+        return true;
+    }
 
-        balance -= amount;
-        transactionHistory.add("Withdrawn: " + amount);
+    // First half of a netted debit: takes netMinor (negative) off the balance
+    // without journaling anything. Snapshots are held off until commitNetted
+    // records the entries or cancelNetted puts the money back, so a batch can
+    // give up on its debits without leaving entries behind. Returns false,
+    // changing nothing, if the debit is not covered.
+    public boolean reserveNetted(long netMinor) {
+        if (netMinor >= 0) {
+            throw new IllegalArgumentException("Reserved amount must be a debit");
+        }
+        PENDING.getAndAdd(this, 1);
+        TransactionResult applied;
+        try {
+            applied = tryAdd(netMinor);
+        } catch (RuntimeException | Error e) {
+            PENDING.getAndAdd(this, -1);
+            throw e;
+        }
+        if (applied != TransactionResult.SUCCESS) {
+            PENDING.getAndAdd(this, -1);
+            if (applied == TransactionResult.INACTIVE_ACCOUNT) {
+                throw new IllegalStateException("Account is not active");
+            }
+            return false;
+        }
+        return true;
     }
 
-    public void closeAccount() {
-        if (!isActive) {
-            throw new IllegalStateException("Account is already closed");
+    public void commitNetted(TransactionType[] types, long[] amounts, int count) {
+        long[] sequences = new long[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                sequences[i] = journal.append(types[i], amounts[i]);
+            }
+        } finally {
+            PENDING.getAndAdd(this, -1);
+        }
+        for (int i = 0; i < count; i++) {
+            notifyListener(types[i], amounts[i], sequences[i]);
         }
-        if (balance > 0) {
-            throw new IllegalStateException("Cannot close account with remaining balance please withdraw all amounts");
+    }
+
+    // Caller holds the monitor, so the account cannot have been closed since
+    // the reservation and the credit back cannot fail
+    public void cancelNetted(long netMinor) {
+        try {
+            STATE.getAndAdd(this, -netMinor << 1);
+        } finally {
+            PENDING.getAndAdd(this, -1);
         }
+    }
 
-        isActive = false;
-        transactionHistory.add("Account closed");
+    public void closeAccount() {
+        long sequence;
+        synchronized (this) {
+            PENDING.getAndAdd(this, 1);
+            try {
+                // A direct deposit may race with us, so the empty-balance check
+                // and the status change are one CAS
+                long current;
+                do {
+                    current = state;
+                    if (!activeOf(current)) {
+                        throw new IllegalStateException("Account is already closed");
+                    }
+                    if (balanceOf(current) > 0) {
+                        throw new IllegalStateException("Cannot close account with remaining balance please withdraw all amounts");
+                    }
+                } while (!STATE.weakCompareAndSet(this, current, current | CLOSED));
+                sequence = journal.append(TransactionType.ACCOUNT_CLOSED, 0);
+            } finally {
+                PENDING.getAndAdd(this, -1);
+            }
+        }
+        // Listener may block on I/O, so it runs after the monitor is released
+        notifyListener(TransactionType.ACCOUNT_CLOSED, 0, sequence);
     }
 
     public void reactivateAccount() {
-        if (isActive) {
-            throw new IllegalStateException("Account is already active");
+        long sequence;
+        synchronized (this) {
+            if (isActive()) {
+                throw new IllegalStateException("Account is already active");
+            }
+
+            PENDING.getAndAdd(this, 1);
+            try {
+                STATE.getAndBitwiseAnd(this, ~CLOSED);
+                sequence = journal.append(TransactionType.ACCOUNT_REACTIVATED, 0);
+            } finally {
+                PENDING.getAndAdd(this, -1);
+            }
+        }
+        notifyListener(TransactionType.ACCOUNT_REACTIVATED, 0, sequence);
+    }
+
+    // Re-applies an entry read back from durable storage. The entry was
+    // validated when it first happened, so it is applied unconditionally:
+    // log order may differ slightly from the order balances changed in.
+    public void replay(TransactionType type, long amountMinor, long timestamp) {
+        if (type == null) {
+            throw new IllegalArgumentException("Transaction type cannot be null");
+        }
+        PENDING.getAndAdd(this, 1);
+        try {
+            switch (type) {
+                case INITIAL_DEPOSIT:
+                case DEPOSIT:
+                case INTEREST:
+                case REVERSAL:
+                    STATE.getAndAdd(this, amountMinor << 1);
+                    break;
+                case WITHDRAWAL:
+                case FEE:
+                    STATE.getAndAdd(this, -(amountMinor << 1));
+                    break;
+                case ACCOUNT_CLOSED:
+                    STATE.getAndBitwiseOr(this, CLOSED);
+                    break;
+                case ACCOUNT_REACTIVATED:
+                    STATE.getAndBitwiseAnd(this, ~CLOSED);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Cannot replay transaction type: " + type);
+            }
+            journal.append(type, amountMinor, timestamp);
+        } finally {
+            PENDING.getAndAdd(this, -1);
+        }
+    }
+
+    // Balance, status and next journal sequence as of one instant, read
+    // without blocking writers; used for checkpoints
+    public AccountSnapshot snapshot() {
+        while (true) {
+            long sequence = journal.getNextSequence();
+            if (pendingEntries == 0) {
+                long current = state;
+                if (pendingEntries == 0 && journal.getNextSequence() == sequence) {
+                    return new AccountSnapshot(balanceOf(current), activeOf(current), sequence);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void notifyListener(TransactionType type, long amountMinor, long sequence) {
+        AccountMutationListener listener = mutationListener;
+        if (listener != null) {
+            long timestamp = journal.timestampAt((int) (sequence - journal.getFirstSequence()));
+            listener.onMutation(this, type, amountMinor, sequence, timestamp);
         }
+    }
 
-        isActive = true;
-        transactionHistory.add("Account reactivated");
+    public void setMutationListener(AccountMutationListener mutationListener) {
+        this.mutationListener = mutationListener;
+    }
+
+    // Chains after any listener already set, e.g. the write-ahead log's
+    public synchronized void addMutationListener(AccountMutationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        AccountMutationListener current = mutationListener;
+        mutationListener = current == null ? listener : current.andThen(listener);
+    }
+
+    public AccountMutationListener getMutationListener() {
+        return mutationListener;
     }
 
     // Getters
@@ -91,24 +439,72 @@ public class BankAccount {
         return accountHolder;
     }
 
+    public AccountTier getTier() {
+        return tier;
+    }
+
+    public void setTier(AccountTier tier) {
+        if (tier == null) {
+            throw new IllegalArgumentException("Tier cannot be null");
+        }
+        AccountTier previous;
+        synchronized (this) {
+            previous = this.tier;
+            this.tier = tier;
+        }
+        AccountMutationListener listener = mutationListener;
+        if (listener != null && previous != tier) {
+            listener.onTierChange(this, tier);
+        }
+    }
+
+    // Restores a tier read back from durable storage without telling the listener
+    public void replayTier(AccountTier tier) {
+        if (tier == null) {
+            throw new IllegalArgumentException("Tier cannot be null");
+        }
+        this.tier = tier;
+    }
+
     public double getBalance() {
-        return balance;
+        return Money.toMajor(balanceOf(state));
+    }
+
+    public long getBalanceMinor() {
+        return balanceOf(state);
     }
 
     public boolean isActive() {
-        return isActive;
+        return activeOf(state);
     }
 
+    // Balance and status from the same instant, for callers that need both
+    public BalanceView view() {
+        long current = state;
+        return new BalanceView(balanceOf(current), activeOf(current));
+    }
+
+    // Read-only view of the entries present at the time of the call
     public List<String> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory);
+        return journal.asStrings();
+    }
+
+    // Entries in [fromMillis, toMillis) of the given types (null for all),
+    // one page at a time; start with HistoryPage.START
+    public HistoryPage queryHistory(long fromMillis, long toMillis, Set<TransactionType> types, long cursor, int limit) {
+        return journal.query(fromMillis, toMillis, types, cursor, limit);
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
     }
 
     @Override
     public String toString() {
         return "BankAccount{" +
                 "accountNumber='" + accountNumber + '\'' +
-                ", balance=" + balance +
-                ", isActive=" + isActive +
+                ", balance=" + getBalance() +
+                ", isActive=" + isActive() +
                 '}';
     }
-}
\ No newline at end of file
+}
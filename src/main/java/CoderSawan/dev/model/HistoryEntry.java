@@ -0,0 +1,51 @@
+package CoderSawan.dev.model;
+
+// One journal record as returned by a history query
+public final class HistoryEntry {
+    private final long sequence;
+    private final TransactionType type;
+    private final long amountMinor;
+    private final long timestamp;
+
+    public HistoryEntry(long sequence, TransactionType type, long amountMinor, long timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.amountMinor = amountMinor;
+        this.timestamp = timestamp;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public double getAmount() {
+        return Money.toMajor(amountMinor);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String describe() {
+        return type.describe(amountMinor);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryEntry{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", amount=" + getAmount() +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package CoderSawan.dev.model;
+
+import java.util.Collections;
+import java.util.List;
+
+// One page of history query results. The cursor is the sequence number to
+// resume at; pass it back with the same query to get the next page.
+public final class HistoryPage {
+
+    public static final long START = 0;
+    public static final long END = -1;
+
+    private final List<HistoryEntry> entries;
+    private final long nextCursor;
+
+    public HistoryPage(List<HistoryEntry> entries, long nextCursor) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<HistoryEntry> getEntries() {
+        return entries;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+}
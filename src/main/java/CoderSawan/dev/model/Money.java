@@ -0,0 +1,37 @@
+package CoderSawan.dev.model;
+
+public final class Money {
+
+    public static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    // BankAccount keeps balances shifted left by one bit, so amounts are
+    // limited to 62 bits of minor units
+    private static final double MAX_MAJOR_AMOUNT = (double) ((Long.MAX_VALUE >> 1) / MINOR_UNITS_PER_MAJOR);
+
+    private Money() {
+    }
+
+    // Rounds to the nearest minor unit (cent)
+    public static long toMinor(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        if (Math.abs(amount) > MAX_MAJOR_AMOUNT) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR);
+    }
+
+    // Like toMinor for amounts that must be positive, but returns -1 instead
+    // of throwing for negative, zero, non-finite or out-of-range amounts
+    public static long toPositiveMinor(double amount) {
+        if (!(amount > 0) || amount > MAX_MAJOR_AMOUNT) {
+            return -1;
+        }
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR);
+    }
+
+    public static double toMajor(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+}
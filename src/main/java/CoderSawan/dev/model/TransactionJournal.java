@@ -0,0 +1,313 @@
+package CoderSawan.dev.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Per-account history stored as fixed-width primitive records. Each record is
+// three longs: (type << 56 | sequence), amount in minor units, timestamp millis.
+// Records are written under the journal's monitor and published by the volatile
+// size, so readers never lock and never copy.
+//
+// Each page also keeps a summary of two longs: its first timestamp (a sparse
+// timestamp index, since timestamps never go backwards) and a bitmask of the
+// record types it holds. Range queries binary search the summaries and skip
+// pages that hold none of the wanted types.
+public class TransactionJournal {
+
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_RECORDS - 1;
+    private static final int RECORD_WIDTH = 3;
+    private static final int INITIAL_RECORDS = 4;
+    private static final int TYPE_SHIFT = 56;
+    private static final long SEQUENCE_MASK = (1L << TYPE_SHIFT) - 1;
+    private static final int SUMMARY_WIDTH = 2;
+
+    // The first page starts tiny and doubles up to a full page, so idle
+    // accounts cost a few dozen bytes; later pages are allocated full size
+    private volatile long[][] pages;
+    private volatile int size;
+    // (first timestamp, type mask) per page, written before size is published
+    private volatile long[] summaries = new long[SUMMARY_WIDTH * 4];
+    private final long firstSequence;
+    private long lastTimestamp;
+
+    public TransactionJournal() {
+        this(1);
+    }
+
+    public TransactionJournal(long firstSequence) {
+        if (firstSequence < 0 || firstSequence > SEQUENCE_MASK) {
+            throw new IllegalArgumentException("Invalid first sequence: " + firstSequence);
+        }
+        this.firstSequence = firstSequence;
+        this.pages = new long[][]{new long[INITIAL_RECORDS * RECORD_WIDTH]};
+    }
+
+    // Returns the sequence number assigned to the new record
+    long append(TransactionType type, long amountMinor) {
+        return append(type, amountMinor, System.currentTimeMillis());
+    }
+
+    // Timestamps never go backwards within a journal, so they can be searched
+    synchronized long append(TransactionType type, long amountMinor, long timestamp) {
+        int index = size;
+        long[] page = pageForWrite(index);
+        long sequence = firstSequence + index;
+        long now = Math.max(timestamp, lastTimestamp);
+        lastTimestamp = now;
+
+        int offset = (index & PAGE_MASK) * RECORD_WIDTH;
+        page[offset] = ((long) type.getCode() << TYPE_SHIFT) | sequence;
+        page[offset + 1] = amountMinor;
+        page[offset + 2] = now;
+        summarize(index, type, now);
+        size = index + 1;
+        return sequence;
+    }
+
+    private long[] pageForWrite(int index) {
+        long[][] current = pages;
+        int pageIndex = index >>> PAGE_SHIFT;
+        if (pageIndex < current.length) {
+            long[] page = current[pageIndex];
+            int slot = (index & PAGE_MASK) * RECORD_WIDTH;
+            if (slot < page.length) {
+                return page;
+            }
+            // Only the first page is ever allocated short
+            long[] grown = new long[Math.min(page.length * 2, PAGE_RECORDS * RECORD_WIDTH)];
+            System.arraycopy(page, 0, grown, 0, page.length);
+            long[][] copy = current.clone();
+            copy[pageIndex] = grown;
+            pages = copy;
+            return grown;
+        }
+        long[][] copy = new long[pageIndex + 1][];
+        System.arraycopy(current, 0, copy, 0, current.length);
+        copy[pageIndex] = new long[PAGE_RECORDS * RECORD_WIDTH];
+        pages = copy;
+        return copy[pageIndex];
+    }
+
+    private void summarize(int index, TransactionType type, long timestamp) {
+        int at = (index >>> PAGE_SHIFT) * SUMMARY_WIDTH;
+        long[] current = summaries;
+        if (at == current.length) {
+            long[] grown = new long[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            summaries = current = grown;
+        }
+        if ((index & PAGE_MASK) == 0) {
+            current[at] = timestamp;
+        }
+        current[at + 1] |= 1L << type.getCode();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    // Sequence the next appended record will get
+    public long getNextSequence() {
+        return firstSequence + size;
+    }
+
+    public TransactionType typeAt(int index) {
+        return TransactionType.fromCode((int) (word(index, 0) >>> TYPE_SHIFT));
+    }
+
+    public long sequenceAt(int index) {
+        return word(index, 0) & SEQUENCE_MASK;
+    }
+
+    public long amountAt(int index) {
+        return word(index, 1);
+    }
+
+    public long timestampAt(int index) {
+        return word(index, 2);
+    }
+
+    private long word(int index, int field) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return pages[index >>> PAGE_SHIFT][(index & PAGE_MASK) * RECORD_WIDTH + field];
+    }
+
+    // Index of the first record stamped at or after timestamp, or size when
+    // there is none: a search over page summaries, then within one page
+    public int indexAtOrAfter(long timestamp) {
+        int end = size;
+        long[] index = summaries;
+        int pageCount = (end + PAGE_MASK) >>> PAGE_SHIFT;
+        // Last page whose first timestamp is before the target
+        int low = 0;
+        int high = pageCount - 1;
+        int page = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid * SUMMARY_WIDTH] < timestamp) {
+                page = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (page < 0) {
+            return 0;
+        }
+        int first = page << PAGE_SHIFT;
+        low = first;
+        high = Math.min(first + PAGE_RECORDS, end) - 1;
+        long[] records = pages[page];
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (records[(mid & PAGE_MASK) * RECORD_WIDTH + 2] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Bit (1 << type code) is set when the page holds a record of that type
+    long pageTypeMask(int page) {
+        return summaries[page * SUMMARY_WIDTH + 1];
+    }
+
+    // Up to limit records in [fromMillis, toMillis) whose type is in types
+    // (null or empty for all), resuming at the sequence given by cursor
+    public HistoryPage query(long fromMillis, long toMillis, Set<TransactionType> types, long cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (toMillis < fromMillis) {
+            throw new IllegalArgumentException("Time range ends before it starts");
+        }
+        long wanted = 0;
+        if (types == null || types.isEmpty()) {
+            wanted = -1L;
+        } else {
+            for (TransactionType type : types) {
+                wanted |= 1L << type.getCode();
+            }
+        }
+
+        int end = indexAtOrAfter(toMillis);
+        int index = indexAtOrAfter(fromMillis);
+        if (cursor > firstSequence) {
+            index = (int) Math.max(index, Math.min(cursor - firstSequence, end));
+        }
+        List<HistoryEntry> entries = new ArrayList<>(Math.min(limit, Math.max(end - index, 0)));
+        while (index < end) {
+            int page = index >>> PAGE_SHIFT;
+            if ((pageTypeMask(page) & wanted) == 0) {
+                index = (page + 1) << PAGE_SHIFT;
+                continue;
+            }
+            long[] records = pages[page];
+            int pageEnd = Math.min((page + 1) << PAGE_SHIFT, end);
+            for (; index < pageEnd; index++) {
+                int offset = (index & PAGE_MASK) * RECORD_WIDTH;
+                long head = records[offset];
+                int code = (int) (head >>> TYPE_SHIFT);
+                if ((wanted & (1L << code)) == 0) {
+                    continue;
+                }
+                if (entries.size() == limit) {
+                    return new HistoryPage(entries, firstSequence + index);
+                }
+                entries.add(new HistoryEntry(head & SEQUENCE_MASK, TransactionType.fromCode(code),
+                        records[offset + 1], records[offset + 2]));
+            }
+        }
+        return new HistoryPage(entries, HistoryPage.END);
+    }
+
+    public String describe(int index) {
+        return typeAt(index).describe(amountAt(index));
+    }
+
+    // Cursor over the records present right now; later appends are not visited
+    public Cursor cursor() {
+        return new Cursor(0, size);
+    }
+
+    public Cursor cursor(int fromIndex) {
+        int end = size;
+        if (fromIndex < 0 || fromIndex > end) {
+            throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + end);
+        }
+        return new Cursor(fromIndex, end);
+    }
+
+    // Read-only List<String> view that formats records on access
+    public List<String> asStrings() {
+        int end = size;
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= end) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + end);
+                }
+                return describe(index);
+            }
+
+            @Override
+            public int size() {
+                return end;
+            }
+        };
+    }
+
+    public final class Cursor {
+        private final int end;
+        private int index;
+        private long[] page;
+        private int offset;
+
+        private Cursor(int start, int end) {
+            this.index = start - 1;
+            this.end = end;
+        }
+
+        public boolean next() {
+            if (index + 1 >= end) {
+                return false;
+            }
+            index++;
+            page = pages[index >>> PAGE_SHIFT];
+            offset = (index & PAGE_MASK) * RECORD_WIDTH;
+            return true;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public TransactionType type() {
+            return TransactionType.fromCode((int) (page[offset] >>> TYPE_SHIFT));
+        }
+
+        public long sequence() {
+            return page[offset] & SEQUENCE_MASK;
+        }
+
+        public long amount() {
+            return page[offset + 1];
+        }
+
+        public long timestamp() {
+            return page[offset + 2];
+        }
+    }
+}
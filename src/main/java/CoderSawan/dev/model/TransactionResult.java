@@ -0,0 +1,20 @@
+package CoderSawan.dev.model;
+
+// Outcome of the non-throwing tryWithdraw/tryTransfer calls. Routine
+// rejections come back as one of these shared constants rather than a new
+// exception, so a rejected request allocates nothing.
+public enum TransactionResult {
+    SUCCESS,
+    INVALID_ACCOUNT,
+    SAME_ACCOUNT,
+    INVALID_AMOUNT,
+    LIMIT_EXCEEDED,
+    INACTIVE_ACCOUNT,
+    INSUFFICIENT_FUNDS,
+    VELOCITY_LIMIT_EXCEEDED,
+    FRAUD_SUSPECTED;
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
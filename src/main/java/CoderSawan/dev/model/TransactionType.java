@@ -0,0 +1,52 @@
+package CoderSawan.dev.model;
+
+public enum TransactionType {
+    INITIAL_DEPOSIT(1, "Initial deposit: ", true),
+    DEPOSIT(2, "Deposited: ", true),
+    WITHDRAWAL(3, "Withdrawn: ", true),
+    FEE(4, "Withdrawn: ", true),
+    ACCOUNT_CLOSED(5, "Account closed", false),
+    ACCOUNT_REACTIVATED(6, "Account reactivated", false),
+    INTEREST(7, "Interest credited: ", true),
+    // Debit given back because the transfer it paid for could not be completed
+    REVERSAL(8, "Reversed: ", true);
+
+    private static final TransactionType[] BY_CODE = new TransactionType[9];
+
+    static {
+        for (TransactionType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final String label;
+    private final boolean hasAmount;
+
+    TransactionType(int code, String label, boolean hasAmount) {
+        this.code = code;
+        this.label = label;
+        this.hasAmount = hasAmount;
+    }
+
+    public static TransactionType fromCode(int code) {
+        TransactionType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown transaction type code: " + code);
+        }
+        return type;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public boolean hasAmount() {
+        return hasAmount;
+    }
+
+    // Same text the String-based history used to store
+    public String describe(long amountMinor) {
+        return hasAmount ? label + Money.toMajor(amountMinor) : label;
+    }
+}
@@ -0,0 +1,347 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import CoderSawan.dev.validator.AccountValidator;
+import CoderSawan.dev.validator.BulkAccountValidator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Loads users and accounts from a CSV file with one record per line:
+//
+//   userId,name,email,age,accountNumber,initialBalance
+//
+// Fields are not quoted, and a first line starting with "userId" is treated
+// as a header. The file is memory-mapped and cut into chunks at line
+// boundaries; each chunk is parsed and validated on its own core with the
+// AccountValidator checks and the User and BankAccount constructors. The
+// accounts are then registered in batches in file order, so when an account
+// number repeats the first row wins. Rejected rows go to a side file as
+//
+//   lineNumber,reason,originalRow
+public class BulkImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private static final int FIELDS = 6;
+    private static final byte[] HEADER = "userId".getBytes(StandardCharsets.US_ASCII);
+
+    private final AccountRegistry registry;
+    private final AccountValidator validator = new AccountValidator();
+    private final int chunkSize;
+    private final int batchSize;
+
+    public BulkImporter(AccountRegistry registry) {
+        this(registry, DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkImporter(AccountRegistry registry, int chunkSize, int batchSize) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry cannot be null");
+        }
+        if (chunkSize <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Chunk and batch sizes must be positive");
+        }
+        this.registry = registry;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public Result importFile(Path csv, Path rejectedFile) throws IOException {
+        if (csv == null || rejectedFile == null) {
+            throw new IllegalArgumentException("Paths cannot be null");
+        }
+        long start = System.nanoTime();
+        ByteBuffer data = BulkAccountValidator.map(csv);
+
+        int[] bounds = chunkBounds(data);
+        Chunk[] chunks = new Chunk[bounds.length - 1];
+        IntStream.range(0, chunks.length).parallel().forEach(i -> {
+            Chunk chunk = new Chunk(data, bounds[i], bounds[i + 1], i == 0);
+            chunk.run();
+            chunks[i] = chunk;
+        });
+        BankAccount[] existing = new BankAccount[batchSize];
+        for (Chunk chunk : chunks) {
+            chunk.register(existing);
+        }
+
+        // Chunks number their lines from zero; shift them into place
+        long records = 0;
+        long imported = 0;
+        long rejected = 0;
+        int lineBase = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(rejectedFile), 1 << 16)) {
+            for (Chunk chunk : chunks) {
+                records += chunk.records;
+                imported += chunk.imported;
+                rejected += chunk.rejections.size();
+                chunk.rejections.sort((a, b) -> Integer.compare(a.line, b.line));
+                for (Rejection rejection : chunk.rejections) {
+                    out.write((lineBase + rejection.line + 1 + "," + rejection.reason + ",")
+                            .getBytes(StandardCharsets.UTF_8));
+                    byte[] row = new byte[rejection.end - rejection.start];
+                    data.get(rejection.start, row);
+                    out.write(row);
+                    out.write('\n');
+                }
+                lineBase += chunk.lines;
+            }
+        }
+        return new Result(records, imported, rejected, System.nanoTime() - start);
+    }
+
+    // Chunk boundaries always fall just after a '\n', so no row is split
+    private int[] chunkBounds(ByteBuffer data) {
+        int length = data.limit();
+        int[] bounds = new int[length / chunkSize + 2];
+        int count = 1;
+        int position = 0;
+        while (position < length) {
+            int next = Math.min(length, position + chunkSize);
+            while (next < length && data.get(next - 1) != '\n') {
+                next++;
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = next;
+            position = next;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static final class Rejection {
+        private final int line;
+        private final String reason;
+        private final int start;
+        private final int end;
+
+        private Rejection(int line, String reason, int start, int end) {
+            this.line = line;
+            this.reason = reason;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final class Chunk {
+        private final ByteBuffer data;
+        private final int start;
+        private final int end;
+        private final boolean first;
+        private final List<Rejection> rejections = new ArrayList<>();
+        private final int[] fieldStarts = new int[FIELDS];
+        private final int[] fieldEnds = new int[FIELDS];
+        private byte[] scratch = new byte[256];
+        // Parsed accounts waiting to be registered, with their rows
+        private BankAccount[] accounts = new BankAccount[1024];
+        private int[] accountLines = new int[1024];
+        private int[] accountStarts = new int[1024];
+        private int[] accountEnds = new int[1024];
+        private int accountCount;
+        private int lines;
+        private long records;
+        private long imported;
+
+        private Chunk(ByteBuffer data, int start, int end, boolean first) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+        }
+
+        private void run() {
+            int lineStart = start;
+            for (int i = start; i <= end; i++) {
+                if (i < end && data.get(i) != '\n') {
+                    continue;
+                }
+                // A trailing newline does not open another line
+                if (i == end && lineStart == end) {
+                    break;
+                }
+                int lineEnd = i > lineStart && data.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart && !(first && lines == 0 && isHeader(lineStart, lineEnd))) {
+                    records++;
+                    row(lines, lineStart, lineEnd);
+                }
+                lines++;
+                lineStart = i + 1;
+            }
+        }
+
+        private boolean isHeader(int lineStart, int lineEnd) {
+            if (lineEnd - lineStart < HEADER.length) {
+                return false;
+            }
+            for (int i = 0; i < HEADER.length; i++) {
+                if (data.get(lineStart + i) != HEADER[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void row(int line, int rowStart, int rowEnd) {
+            int field = 0;
+            int fieldStart = rowStart;
+            for (int i = rowStart; i <= rowEnd; i++) {
+                if (i < rowEnd && data.get(i) != ',') {
+                    continue;
+                }
+                if (field == FIELDS) {
+                    field++;
+                    break;
+                }
+                fieldStarts[field] = fieldStart;
+                fieldEnds[field] = i;
+                field++;
+                fieldStart = i + 1;
+            }
+            if (field != FIELDS) {
+                reject(line, "Expected " + FIELDS + " fields", rowStart, rowEnd);
+                return;
+            }
+
+            String accountNumber = field(4);
+            if (!validator.isValidAccountNumber(accountNumber)) {
+                reject(line, "Invalid account number", rowStart, rowEnd);
+                return;
+            }
+            String email = field(2);
+            if (!validator.isValidEmail(email)) {
+                reject(line, "Invalid email", rowStart, rowEnd);
+                return;
+            }
+            int age;
+            double initialBalance;
+            try {
+                age = Integer.parseInt(field(3));
+                initialBalance = Double.parseDouble(field(5));
+            } catch (NumberFormatException e) {
+                reject(line, "Invalid number", rowStart, rowEnd);
+                return;
+            }
+            if (!validator.canOpenAccount(age, initialBalance)) {
+                reject(line, "Cannot open account", rowStart, rowEnd);
+                return;
+            }
+
+            BankAccount account;
+            try {
+                User holder = new User(field(0), field(1), email, age);
+                account = new BankAccount(accountNumber, holder, initialBalance);
+            } catch (IllegalArgumentException e) {
+                reject(line, e.getMessage(), rowStart, rowEnd);
+                return;
+            }
+
+            if (accountCount == accounts.length) {
+                int grown = accountCount * 2;
+                accounts = Arrays.copyOf(accounts, grown);
+                accountLines = Arrays.copyOf(accountLines, grown);
+                accountStarts = Arrays.copyOf(accountStarts, grown);
+                accountEnds = Arrays.copyOf(accountEnds, grown);
+            }
+            accounts[accountCount] = account;
+            accountLines[accountCount] = line;
+            accountStarts[accountCount] = rowStart;
+            accountEnds[accountCount] = rowEnd;
+            accountCount++;
+        }
+
+        // Trimmed field as a String
+        private String field(int index) {
+            int from = fieldStarts[index];
+            int to = fieldEnds[index];
+            while (from < to && data.get(from) <= ' ') {
+                from++;
+            }
+            while (to > from && data.get(to - 1) <= ' ') {
+                to--;
+            }
+            int length = to - from;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            data.get(from, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void register(BankAccount[] existing) {
+            for (int from = 0; from < accountCount; from += batchSize) {
+                int count = Math.min(batchSize, accountCount - from);
+                BankAccount[] batch = from == 0 ? accounts : Arrays.copyOfRange(accounts, from, from + count);
+                registry.registerAllIfAbsent(batch, count, existing);
+                for (int i = 0; i < count; i++) {
+                    int index = from + i;
+                    if (existing[i] == null) {
+                        imported++;
+                    } else {
+                        reject(accountLines[index], "Duplicate account number", accountStarts[index], accountEnds[index]);
+                    }
+                    existing[i] = null;
+                }
+            }
+            accounts = null;
+        }
+
+        private void reject(int line, String reason, int rowStart, int rowEnd) {
+            rejections.add(new Rejection(line, reason, rowStart, rowEnd));
+        }
+    }
+
+    public static final class Result {
+        private final long records;
+        private final long imported;
+        private final long rejected;
+        private final long elapsedNanos;
+
+        private Result(long records, long imported, long rejected, long elapsedNanos) {
+            this.records = records;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Getters
+        public long getRecords() {
+            return records;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "records=" + records +
+                    ", imported=" + imported +
+                    ", rejected=" + rejected +
+                    ", recordsPerSecond=" + (long) (records / Math.max(elapsedNanos / 1e9, 1e-9)) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.AccountMutationListener;
+import CoderSawan.dev.model.AccountSnapshot;
+import CoderSawan.dev.model.AccountTier;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountKeys;
+import CoderSawan.dev.repository.AccountRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Checkpoints of every account in a fixed-layout file that is memory-mapped
+// on startup. Accounts are not loaded up front: get() looks an account up in
+// the registry and, on a miss, binary-searches the mapped file and hydrates it.
+// Startup therefore costs one mmap plus replaying the log written after the
+// checkpoint, whatever the number of accounts.
+//
+// Header (64 bytes): [long magic][int version][int unused][long count]
+//                    [long logPosition][long createdAt][long stringsSize]
+// Record (64 bytes, sorted by account key):
+//                    [long key][long balanceMinor][long nextSequence]
+//                    [byte flags][byte holderIdLength][38 bytes holder id]
+// flags: bit 0 active, bits 1-3 AccountTier ordinal
+// Strings (stringsSize bytes, after the records): UTF-8 holder ids too long
+//                    to fit in a record. Such a record has holderIdLength
+//                    LONG_HOLDER_ID and keeps [long offset][int length] of
+//                    its id in the table where the id would be.
+//
+// An account removed from the registry stays removed: a record whose account
+// has been live in this process but is no longer registered is neither
+// hydrated again nor carried into the next checkpoint.
+//
+// Version 1 files have no string table, and version 1 and 2 files leave the
+// tier bits clear (STANDARD); both are still read.
+public class SnapshotStore {
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    static final int MAX_HOLDER_ID_BYTES = RECORD_SIZE - 26;
+    static final int LONG_HOLDER_ID = 0xFF;
+
+    private static final long MAGIC = 0x424B534E41503031L; // "BKSNAP01"
+    private static final int VERSION = 3;
+    private static final int ACTIVE = 1;
+    private static final int TIER_SHIFT = 1;
+    private static final int TIER_MASK = 0x7;
+    // Records per mapped segment, so files beyond 2 GB can be mapped
+    private static final int SEGMENT_RECORDS = 1 << 24;
+
+    private final Path file;
+    private final AccountRegistry registry;
+    private final Function<String, User> users;
+    private volatile Mapping mapping;
+    private volatile AccountMutationListener mutationListener;
+    private volatile Exception lastCheckpointFailure;
+    // Keys of accounts that have been in the registry since the snapshot was
+    // opened (hydrated or checkpointed); absent from the registry means removed
+    private final Set<Long> liveKeys = ConcurrentHashMap.newKeySet();
+
+    public SnapshotStore(Path file, AccountRegistry registry, Function<String, User> users) throws IOException {
+        if (file == null || registry == null || users == null) {
+            throw new IllegalArgumentException("File, registry and user lookup cannot be null");
+        }
+        this.file = file;
+        this.registry = registry;
+        this.users = users;
+        this.mapping = Files.exists(file) ? Mapping.open(file) : Mapping.EMPTY;
+    }
+
+    public BankAccount get(String accountNumber) {
+        long key = AccountKeys.tryEncode(accountNumber);
+        return key == AccountKeys.INVALID ? null : get(key);
+    }
+
+    public BankAccount get(long key) {
+        BankAccount account = registry.get(key);
+        if (account != null) {
+            return account;
+        }
+        if (liveKeys.contains(key)) {
+            // Removed from the registry; its old record must not bring it back
+            return null;
+        }
+        Mapping current = mapping;
+        long index = current.find(key);
+        if (index < 0) {
+            return null;
+        }
+        BankAccount hydrated = current.hydrate(index, key, users);
+        AccountMutationListener listener = mutationListener;
+        if (listener != null) {
+            hydrated.addMutationListener(listener);
+        }
+        BankAccount existing = registry.registerIfAbsent(hydrated);
+        // Added only once registered, so a checkpoint that finds the key here
+        // and not in the registry knows the account was removed
+        liveKeys.add(key);
+        return existing != null ? existing : hydrated;
+    }
+
+    // Listener given to accounts as they are hydrated (normally the write-ahead log)
+    public void setMutationListener(AccountMutationListener mutationListener) {
+        this.mutationListener = mutationListener;
+    }
+
+    // Log position the current snapshot is complete up to
+    public long getLogPosition() {
+        return mapping.logPosition;
+    }
+
+    public long getSnapshotAccountCount() {
+        return mapping.count;
+    }
+
+    // Replays the log written since the checkpoint into the registry
+    public long recoverLog(Path logFile) throws IOException {
+        return WriteAheadLog.recover(logFile, getLogPosition(), registry, this::get, users);
+    }
+
+    public long checkpoint(WriteAheadLog log) throws IOException {
+        // Everything durable before the scan starts is in the snapshot; later
+        // records replay safely because accounts skip sequences they already hold.
+        // The position backs up to any transfer intent still open, which
+        // recovery must see to complete the transfer.
+        return checkpoint(log == null ? 0 : log.getCheckpointPosition());
+    }
+
+    // Writes a new snapshot of every account in the registry plus the records
+    // of the previous snapshot that were never hydrated, without blocking
+    // writers. Returns the number of accounts written.
+    public synchronized long checkpoint(long logPosition) throws IOException {
+        BankAccount[] accounts = registryAccounts();
+        long[] keys = new long[accounts.length];
+        for (int k = 0; k < accounts.length; k++) {
+            keys[k] = AccountKeys.encode(accounts[k].getAccountNumber());
+        }
+        Mapping previous = mapping;
+
+        long[] removed = removedRecords(previous, keys);
+        long[] removedKeys = new long[removed.length];
+        for (int r = 0; r < removed.length; r++) {
+            removedKeys[r] = previous.keyAt(removed[r]);
+        }
+        long count = mergedCount(previous, keys) - removed.length;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            MappedByteBuffer[] segments = Mapping.mapSegments(channel, FileChannel.MapMode.READ_WRITE, count);
+
+            StringTable strings = new StringTable();
+            long out = 0;
+            int j = 0;
+            int r = 0;
+            for (long i = 0; i < previous.count || j < keys.length; ) {
+                if (r < removed.length && removed[r] == i) {
+                    r++;
+                    i++;
+                    continue;
+                }
+                long oldKey = i < previous.count ? previous.keyAt(i) : Long.MAX_VALUE;
+                long newKey = j < keys.length ? keys[j] : Long.MAX_VALUE;
+                ByteBuffer target = Mapping.segment(segments, out);
+                int offset = Mapping.offset(out);
+                if (newKey <= oldKey) {
+                    writeAccount(target, offset, newKey, accounts[j], strings);
+                    j++;
+                    if (newKey == oldKey) {
+                        i++;
+                    }
+                } else {
+                    previous.copyRecord(i, target, offset, strings);
+                    i++;
+                }
+                out++;
+            }
+
+            strings.writeTo(channel, HEADER_SIZE + count * RECORD_SIZE);
+            header.putLong(0, MAGIC)
+                    .putInt(8, VERSION)
+                    .putLong(16, count)
+                    .putLong(24, logPosition)
+                    .putLong(32, System.currentTimeMillis())
+                    .putLong(40, strings.size);
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            header.force();
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapping = Mapping.open(file);
+        for (long key : keys) {
+            liveKeys.add(key);
+        }
+        for (long key : removedKeys) {
+            // Gone from the file too, so nothing is left to hold back
+            liveKeys.remove(key);
+        }
+        return count;
+    }
+
+    // Runs checkpoint(log) at a fixed rate; a failed run is kept in
+    // getLastCheckpointFailure() and the next run tries again
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor, long period, TimeUnit unit,
+                                       WriteAheadLog log) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                checkpoint(log);
+                lastCheckpointFailure = null;
+            } catch (IOException | RuntimeException e) {
+                lastCheckpointFailure = e;
+            }
+        }, period, period, unit);
+    }
+
+    public Exception getLastCheckpointFailure() {
+        return lastCheckpointFailure;
+    }
+
+    // Accounts currently in the registry, sorted by key
+    private BankAccount[] registryAccounts() {
+        List<BankAccount> accounts = new ArrayList<>(registry.size());
+        registry.forEach(accounts::add);
+        BankAccount[] sorted = accounts.toArray(new BankAccount[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(account -> AccountKeys.encode(account.getAccountNumber())));
+        return sorted;
+    }
+
+    // Indexes, ascending, of previous records whose account was live and has
+    // since been removed from the registry
+    private long[] removedRecords(Mapping previous, long[] keys) {
+        long[] removed = new long[0];
+        int count = 0;
+        int j = 0;
+        for (long i = 0; i < previous.count; i++) {
+            long key = previous.keyAt(i);
+            while (j < keys.length && keys[j] < key) {
+                j++;
+            }
+            if ((j == keys.length || keys[j] != key) && liveKeys.contains(key) && registry.get(key) == null) {
+                if (count == removed.length) {
+                    removed = Arrays.copyOf(removed, Math.max(8, count * 2));
+                }
+                removed[count++] = i;
+            }
+        }
+        return Arrays.copyOf(removed, count);
+    }
+
+    private static long mergedCount(Mapping previous, long[] keys) {
+        long count = 0;
+        int j = 0;
+        for (long i = 0; i < previous.count || j < keys.length; count++) {
+            long oldKey = i < previous.count ? previous.keyAt(i) : Long.MAX_VALUE;
+            long newKey = j < keys.length ? keys[j] : Long.MAX_VALUE;
+            if (newKey <= oldKey) {
+                j++;
+                if (newKey == oldKey) {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeAccount(ByteBuffer target, int offset, long key, BankAccount account,
+                                     StringTable strings) {
+        String userId = account.getAccountHolder().getUserId();
+        byte[] holderId = userId.getBytes(StandardCharsets.UTF_8);
+        AccountSnapshot state = account.snapshot();
+        target.putLong(offset, key)
+                .putLong(offset + 8, state.getBalanceMinor())
+                .putLong(offset + 16, state.getNextSequence())
+                .put(offset + 24, (byte) ((state.isActive() ? ACTIVE : 0)
+                        | account.getTier().ordinal() << TIER_SHIFT));
+        putHolderId(target, offset, userId, holderId, strings);
+    }
+
+    private static void putHolderId(ByteBuffer target, int offset, String userId, byte[] holderId,
+                                    StringTable strings) {
+        if (holderId.length <= MAX_HOLDER_ID_BYTES) {
+            target.put(offset + 25, (byte) holderId.length)
+                    .put(offset + 26, holderId);
+        } else {
+            target.put(offset + 25, (byte) LONG_HOLDER_ID)
+                    .putLong(offset + 26, strings.add(userId, holderId))
+                    .putInt(offset + 34, holderId.length);
+        }
+    }
+
+    // Holder ids too long for a record, each written once however many
+    // accounts it holds. Rare enough to be built on the heap.
+    private static final class StringTable {
+        private final Map<String, Long> offsets = new HashMap<>();
+        private byte[] bytes = new byte[0];
+        private int size;
+
+        private long add(String userId, byte[] holderId) {
+            Long known = offsets.get(userId);
+            if (known != null) {
+                return known;
+            }
+            if (size + holderId.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + holderId.length));
+            }
+            System.arraycopy(holderId, 0, bytes, size, holderId.length);
+            long offset = size;
+            size += holderId.length;
+            offsets.put(userId, offset);
+            return offset;
+        }
+
+        private void writeTo(FileChannel channel, long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    // A mapped snapshot file; reads use absolute positions so threads can share it
+    private static final class Mapping {
+        private static final Mapping EMPTY = new Mapping(new MappedByteBuffer[0], null, 0, 0);
+
+        private final MappedByteBuffer[] segments;
+        private final MappedByteBuffer strings;
+        private final long count;
+        private final long logPosition;
+
+        private Mapping(MappedByteBuffer[] segments, MappedByteBuffer strings, long count, long logPosition) {
+            this.segments = segments;
+            this.strings = strings;
+            this.count = count;
+            this.logPosition = logPosition;
+        }
+
+        private static Mapping open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Snapshot file is truncated: " + file);
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                int version = header.getInt(8);
+                if (header.getLong(0) != MAGIC || version < 1 || version > VERSION) {
+                    throw new IOException("Not a snapshot file: " + file);
+                }
+                long count = header.getLong(16);
+                long stringsSize = version >= 2 ? header.getLong(40) : 0;
+                long recordsEnd = HEADER_SIZE + count * RECORD_SIZE;
+                if (stringsSize < 0 || stringsSize > Integer.MAX_VALUE
+                        || channel.size() < recordsEnd + stringsSize) {
+                    throw new IOException("Snapshot file is truncated: " + file);
+                }
+                MappedByteBuffer strings = stringsSize == 0 ? null
+                        : channel.map(FileChannel.MapMode.READ_ONLY, recordsEnd, stringsSize);
+                return new Mapping(mapSegments(channel, FileChannel.MapMode.READ_ONLY, count),
+                        strings, count, header.getLong(24));
+            }
+        }
+
+        private static MappedByteBuffer[] mapSegments(FileChannel channel, FileChannel.MapMode mode, long count)
+                throws IOException {
+            int segmentCount = (int) ((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long records = Math.min(SEGMENT_RECORDS, count - (long) s * SEGMENT_RECORDS);
+                long position = HEADER_SIZE + (long) s * SEGMENT_RECORDS * RECORD_SIZE;
+                segments[s] = channel.map(mode, position, records * RECORD_SIZE);
+            }
+            return segments;
+        }
+
+        private static ByteBuffer segment(ByteBuffer[] segments, long index) {
+            return segments[(int) (index / SEGMENT_RECORDS)];
+        }
+
+        private static int offset(long index) {
+            return (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+        }
+
+        private long keyAt(long index) {
+            return segment(segments, index).getLong(offset(index));
+        }
+
+        private long find(long key) {
+            long low = 0;
+            long high = count - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                long found = keyAt(mid);
+                if (found < key) {
+                    low = mid + 1;
+                } else if (found > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private BankAccount hydrate(long index, long key, Function<String, User> users) {
+            ByteBuffer buffer = segment(segments, index);
+            int offset = offset(index);
+            String userId = new String(holderIdAt(buffer, offset), StandardCharsets.UTF_8);
+            User holder = users.apply(userId);
+            if (holder == null) {
+                throw new IllegalStateException("Unknown account holder: " + userId);
+            }
+            int flags = buffer.get(offset + 24);
+            BankAccount account = BankAccount.restore(AccountKeys.decode(key), holder, buffer.getLong(offset + 8),
+                    (flags & ACTIVE) != 0, buffer.getLong(offset + 16));
+            account.replayTier(AccountTier.values()[(flags >>> TIER_SHIFT) & TIER_MASK]);
+            return account;
+        }
+
+        private byte[] holderIdAt(ByteBuffer buffer, int offset) {
+            int length = buffer.get(offset + 25) & 0xFF;
+            if (length != LONG_HOLDER_ID) {
+                byte[] holderId = new byte[length];
+                buffer.get(offset + 26, holderId);
+                return holderId;
+            }
+            byte[] holderId = new byte[buffer.getInt(offset + 34)];
+            strings.get((int) buffer.getLong(offset + 26), holderId);
+            return holderId;
+        }
+
+        // Long holder ids move from this snapshot's string table to the new one
+        private void copyRecord(long index, ByteBuffer target, int targetOffset, StringTable table) {
+            ByteBuffer source = segment(segments, index);
+            int offset = offset(index);
+            target.put(targetOffset, source, offset, RECORD_SIZE);
+            if ((source.get(offset + 25) & 0xFF) == LONG_HOLDER_ID) {
+                byte[] holderId = holderIdAt(source, offset);
+                putHolderId(target, targetOffset, new String(holderId, StandardCharsets.UTF_8), holderId, table);
+            }
+        }
+    }
+}
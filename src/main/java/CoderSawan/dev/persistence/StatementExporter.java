@@ -0,0 +1,359 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionJournal;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.repository.AccountRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Writes account statements for a period, streaming each account's journal
+// straight into a direct buffer that is flushed to a FileChannel when full.
+// Accounts are sorted by number and cut into ranges; each range becomes its
+// own part file and is generated in parallel. Nothing is materialized per
+// entry (no Strings, no history lists), so memory stays at one buffer per
+// part however long the histories are.
+//
+// CSV parts hold one row per entry:
+//
+//   accountNumber,sequence,timestamp,type,amount
+//
+// with the timestamp in epoch millis. TEXT parts hold a block per account
+// with UTC date-times, ready to be laid out as a printed statement.
+public class StatementExporter {
+
+    public enum Format {
+        CSV("csv"),
+        TEXT("txt");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public static final int DEFAULT_ACCOUNTS_PER_PART = 65_536;
+    public static final int DEFAULT_BUFFER_SIZE = 256 << 10;
+
+    private static final byte[] CSV_HEADER =
+            "accountNumber,sequence,timestamp,type,amount\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] TYPE_NAMES = new byte[TransactionType.values().length][];
+
+    static {
+        for (TransactionType type : TransactionType.values()) {
+            TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final int accountsPerPart;
+    private final int bufferSize;
+
+    public StatementExporter() {
+        this(DEFAULT_ACCOUNTS_PER_PART, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StatementExporter(int accountsPerPart, int bufferSize) {
+        if (accountsPerPart <= 0) {
+            throw new IllegalArgumentException("Accounts per part must be positive");
+        }
+        // Room for the longest fixed-width line
+        if (bufferSize < 256) {
+            throw new IllegalArgumentException("Buffer size must be at least 256 bytes");
+        }
+        this.accountsPerPart = accountsPerPart;
+        this.bufferSize = bufferSize;
+    }
+
+    public Result export(AccountRegistry registry, long fromMillis, long toMillis,
+                         Format format, Path directory) throws IOException {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry cannot be null");
+        }
+        List<BankAccount> accounts = new ArrayList<>(registry.size());
+        registry.forEach(accounts::add);
+        return export(accounts, fromMillis, toMillis, format, directory);
+    }
+
+    // Entries stamped in [fromMillis, toMillis) go into part files named
+    // statements-00000.<ext>, ... under directory
+    public Result export(List<BankAccount> accounts, long fromMillis, long toMillis,
+                         Format format, Path directory) throws IOException {
+        if (accounts == null || format == null || directory == null) {
+            throw new IllegalArgumentException("Accounts, format and directory cannot be null");
+        }
+        if (toMillis < fromMillis) {
+            throw new IllegalArgumentException("Period ends before it starts");
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        BankAccount[] sorted = accounts.toArray(new BankAccount[0]);
+        Arrays.sort(sorted, Comparator.comparing(BankAccount::getAccountNumber));
+
+        int parts = (sorted.length + accountsPerPart - 1) / accountsPerPart;
+        Path[] files = new Path[parts];
+        AtomicLong entries = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        try {
+            IntStream.range(0, parts).parallel().forEach(part -> {
+                Path file = directory.resolve(String.format("statements-%05d.%s", part, format.getExtension()));
+                int from = part * accountsPerPart;
+                int to = Math.min(sorted.length, from + accountsPerPart);
+                try (Part writer = new Part(file, format, fromMillis, toMillis)) {
+                    for (int i = from; i < to; i++) {
+                        writer.account(sorted[i]);
+                    }
+                    writer.flush();
+                    entries.addAndGet(writer.entries);
+                    bytes.addAndGet(writer.written);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                files[part] = file;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(sorted.length, entries.get(), bytes.get(), List.of(files), System.nanoTime() - start);
+    }
+
+    private final class Part implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        private final Format format;
+        private final long fromMillis;
+        private final long toMillis;
+        // Digits are written backwards into here, then copied out
+        private final byte[] digits = new byte[20];
+        private long entries;
+        private long written;
+
+        private Part(Path file, Format format, long fromMillis, long toMillis) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.format = format;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            if (format == Format.CSV) {
+                put(CSV_HEADER);
+            }
+        }
+
+        private void account(BankAccount account) throws IOException {
+            byte[] number = account.getAccountNumber().getBytes(StandardCharsets.US_ASCII);
+            TransactionJournal journal = account.getJournal();
+            TransactionJournal.Cursor cursor = journal.cursor(journal.indexAtOrAfter(fromMillis));
+            if (format == Format.TEXT) {
+                header(account, number);
+            }
+            long count = 0;
+            while (cursor.next() && cursor.timestamp() < toMillis) {
+                ensure(128 + number.length);
+                if (format == Format.CSV) {
+                    buffer.put(number).put((byte) ',');
+                    putLong(cursor.sequence());
+                    buffer.put((byte) ',');
+                    putLong(cursor.timestamp());
+                    buffer.put((byte) ',').put(TYPE_NAMES[cursor.type().ordinal()]).put((byte) ',');
+                    putAmount(cursor.amount());
+                } else {
+                    buffer.put((byte) ' ').put((byte) ' ');
+                    putDateTime(cursor.timestamp());
+                    buffer.put((byte) ' ').put((byte) ' ').put((byte) '#');
+                    putLong(cursor.sequence());
+                    buffer.put((byte) ' ').put((byte) ' ').put(TYPE_NAMES[cursor.type().ordinal()]);
+                    if (cursor.type().hasAmount()) {
+                        buffer.put((byte) ' ').put((byte) ' ');
+                        putAmount(cursor.amount());
+                    }
+                }
+                buffer.put((byte) '\n');
+                count++;
+            }
+            if (format == Format.TEXT) {
+                ensure(64);
+                put("Entries: ");
+                putLong(count);
+                put("\n\n");
+            }
+            entries += count;
+        }
+
+        private void header(BankAccount account, byte[] number) throws IOException {
+            put("Statement for account ");
+            put(number);
+            put(" - ");
+            put(account.getAccountHolder().getName().getBytes(StandardCharsets.UTF_8));
+            ensure(96);
+            put("\nPeriod: ");
+            putDateTime(fromMillis);
+            put(" to ");
+            putDateTime(toMillis);
+            put(" UTC\n");
+        }
+
+        private void ensure(int room) throws IOException {
+            if (buffer.remaining() < room) {
+                flush();
+            }
+        }
+
+        private void put(String ascii) throws IOException {
+            ensure(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) {
+                buffer.put((byte) ascii.charAt(i));
+            }
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                written += write(ByteBuffer.wrap(bytes));
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void putLong(long value) {
+            if (value < 0) {
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            int at = digits.length;
+            do {
+                digits[--at] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            buffer.put(digits, at, digits.length - at);
+        }
+
+        // Minor units as major.minor, always with two decimals
+        private void putAmount(long minor) {
+            if (minor < 0) {
+                buffer.put((byte) '-');
+                minor = -minor;
+            }
+            putLong(minor / 100);
+            long cents = minor % 100;
+            buffer.put((byte) '.').put((byte) ('0' + cents / 10)).put((byte) ('0' + cents % 10));
+        }
+
+        // yyyy-MM-dd HH:mm:ss in UTC, from the days-to-civil conversion, so
+        // no formatter objects are created per entry
+        private void putDateTime(long millis) {
+            long seconds = Math.floorDiv(millis, 1000);
+            long days = Math.floorDiv(seconds, 86_400);
+            long secondOfDay = seconds - days * 86_400;
+            long z = days + 719_468;
+            long era = Math.floorDiv(z, 146_097);
+            long dayOfEra = z - era * 146_097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+            long month = mp < 10 ? mp + 3 : mp - 9;
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+            putLong(year);
+            buffer.put((byte) '-');
+            putTwoDigits(month);
+            buffer.put((byte) '-');
+            putTwoDigits(day);
+            buffer.put((byte) ' ');
+            putTwoDigits(secondOfDay / 3600);
+            buffer.put((byte) ':');
+            putTwoDigits(secondOfDay / 60 % 60);
+            buffer.put((byte) ':');
+            putTwoDigits(secondOfDay % 60);
+        }
+
+        private void putTwoDigits(long value) {
+            buffer.put((byte) ('0' + value / 10)).put((byte) ('0' + value % 10));
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            written += write(buffer);
+            buffer.clear();
+        }
+
+        private int write(ByteBuffer source) throws IOException {
+            int total = 0;
+            while (source.hasRemaining()) {
+                total += channel.write(source);
+            }
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static final class Result {
+        private final long accounts;
+        private final long entries;
+        private final long bytes;
+        private final List<Path> files;
+        private final long elapsedNanos;
+
+        private Result(long accounts, long entries, long bytes, List<Path> files, long elapsedNanos) {
+            this.accounts = accounts;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.files = files;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Getters
+        public long getAccounts() {
+            return accounts;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public List<Path> getFiles() {
+            return files;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "accounts=" + accounts +
+                    ", entries=" + entries +
+                    ", bytes=" + bytes +
+                    ", files=" + files.size() +
+                    ", entriesPerSecond=" + (long) (entries / Math.max(elapsedNanos / 1e9, 1e-9)) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,752 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.AccountMutationListener;
+import CoderSawan.dev.model.AccountTier;
+import CoderSawan.dev.model.AccountSnapshot;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountKeys;
+import CoderSawan.dev.repository.AccountRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32C;
+
+// Append-only log of account mutations, written through a FileChannel.
+//
+// The file is a sequence of frames: [int payloadLength][int crc32c][payload],
+// where the payload holds one or more records. A frame is applied on recovery
+// only if it is complete and its checksum matches, so the records of one frame
+// (for example the debit, fee and credit of a transfer) survive a crash together.
+//
+// Record: [byte kind][long accountKey][long sequence][long amountMinor][long timestamp]
+// where kind is a TransactionType code, or OPEN / OPEN_INACTIVE followed by
+// [short length][holder id bytes], or TIER with the AccountTier ordinal in
+// place of the amount, or DROP, written by recovery to cancel the record of
+// that account and sequence logged before it.
+//
+// A transfer whose two sides are logged in different frames (see
+// ShardedSequencer) is bracketed by INTENT, logged with the debit and followed
+// by [long receiverKey][long refundMinor], and RESOLVED, logged with the credit
+// or the refund. Both carry the sender's key and the sequence of its
+// withdrawal. Recovery completes any intent left unresolved: the receiver is
+// credited if it is active, otherwise the sender gets the refund.
+//
+// Records are appended after the account's journal entry is made, so two
+// mutations of one account can reach the log out of sequence order. Recovery
+// applies each account's records in sequence order.
+//
+// Group commit: writers append frames to an in-memory buffer and wait for it to
+// become durable. The first waiter writes and force()s everything buffered so far
+// while later writers keep appending behind it, so one fsync covers many callers.
+public class WriteAheadLog implements AccountMutationListener, Closeable {
+
+    static final byte OPEN = 0;
+    static final byte OPEN_INACTIVE = -1;
+    static final byte TIER = -2;
+    static final byte DROP = -3;
+    static final byte INTENT = -4;
+    static final byte RESOLVED = -5;
+
+    private static final int FRAME_HEADER = 8;
+    private static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 8;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ThreadLocal<Group> groups = ThreadLocal.withInitial(Group::new);
+
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long appendedPosition;
+    private long durablePosition;
+    private boolean flushing;
+    private IOException failure;
+    private long syncCount;
+    // Unresolved intents and the position of the frame each was logged in
+    private final Map<IntentId, Long> openIntents = new HashMap<>();
+
+    public WriteAheadLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        long end = channel.size();
+        channel.position(end);
+        this.appendedPosition = end;
+        this.durablePosition = end;
+    }
+
+    // Logs the account's current state as an OPEN record and logs every later
+    // mutation of it, after any listener the account already has. Returns once
+    // the OPEN record is durable.
+    //
+    // The listener goes on before the state is read, so no mutation can slip
+    // between the two unlogged. Mutations in that window wait until the OPEN
+    // record is written, so their records land after it; recovery skips the
+    // ones the OPEN record already counts by their sequence.
+    public void attach(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        byte[] holderId = account.getAccountHolder().getUserId().getBytes(StandardCharsets.UTF_8);
+        if (holderId.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Holder id too long");
+        }
+        Attachment attachment = new Attachment();
+        account.addMutationListener(attachment);
+        Group group = groups.get();
+        group.begin();
+        try {
+            AccountSnapshot state = account.snapshot();
+            group.record(state.isActive() ? OPEN : OPEN_INACTIVE, AccountKeys.encode(account.getAccountNumber()),
+                    state.getNextSequence(), state.getBalanceMinor(), System.currentTimeMillis());
+            group.holderId(holderId);
+            AccountTier tier = account.getTier();
+            if (tier != AccountTier.STANDARD) {
+                group.record(TIER, AccountKeys.encode(account.getAccountNumber()), 0, tier.ordinal(),
+                        System.currentTimeMillis());
+            }
+        } finally {
+            try {
+                group.end();
+            } finally {
+                attachment.open();
+            }
+        }
+    }
+
+    // Records logged by this thread until the matching endGroup() go into one
+    // frame, which is written and made durable by endGroup(). Groups nest.
+    public void beginGroup() {
+        groups.get().begin();
+    }
+
+    public void endGroup() {
+        groups.get().end();
+    }
+
+    @Override
+    public void onMutation(BankAccount account, TransactionType type, long amountMinor, long sequence, long timestamp) {
+        Group group = groups.get();
+        group.begin();
+        try {
+            group.record((byte) type.getCode(), AccountKeys.encode(account.getAccountNumber()),
+                    sequence, amountMinor, timestamp);
+        } finally {
+            group.end();
+        }
+    }
+
+    @Override
+    public void onTierChange(BankAccount account, AccountTier tier) {
+        Group group = groups.get();
+        group.begin();
+        try {
+            group.record(TIER, AccountKeys.encode(account.getAccountNumber()), 0, tier.ordinal(),
+                    System.currentTimeMillis());
+        } finally {
+            group.end();
+        }
+    }
+
+    // Logs that the sender has been debited for a transfer whose credit will be
+    // logged in a later frame. withdrawalSequence is the journal sequence of
+    // the sender's withdrawal entry and, with the sender, names the transfer.
+    // Call it in the same group as the debit.
+    public void logTransferIntent(BankAccount from, long withdrawalSequence, BankAccount to,
+                                  long creditMinor, long refundMinor) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+        Group group = groups.get();
+        group.begin();
+        try {
+            long key = AccountKeys.encode(from.getAccountNumber());
+            group.record(INTENT, key, withdrawalSequence, creditMinor, System.currentTimeMillis());
+            group.intent(AccountKeys.encode(to.getAccountNumber()), refundMinor);
+            group.opened.add(new IntentId(key, withdrawalSequence));
+        } finally {
+            group.end();
+        }
+    }
+
+    // Logs that the transfer has been credited or refunded. Call it in the
+    // same group as that credit or refund.
+    public void resolveTransferIntent(BankAccount from, long withdrawalSequence) {
+        if (from == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        Group group = groups.get();
+        group.begin();
+        try {
+            long key = AccountKeys.encode(from.getAccountNumber());
+            group.record(RESOLVED, key, withdrawalSequence, 0, System.currentTimeMillis());
+            group.resolved.add(new IntentId(key, withdrawalSequence));
+        } finally {
+            group.end();
+        }
+    }
+
+    // Appends one frame and returns the file position it ends at
+    private long append(ByteBuffer payload, List<IntentId> opened) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array(), 0, payload.position());
+        int length = payload.position();
+
+        lock.lock();
+        try {
+            checkNotFailed();
+            if (pending.remaining() < FRAME_HEADER + length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + FRAME_HEADER + length));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.putInt(length).putInt((int) crc.getValue()).put(payload.array(), 0, length);
+            for (IntentId intent : opened) {
+                openIntents.put(intent, appendedPosition);
+            }
+            appendedPosition += FRAME_HEADER + length;
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long position) {
+        lock.lock();
+        try {
+            while (durablePosition < position) {
+                checkNotFailed();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+
+                // Become the leader: take everything buffered so far
+                flushing = true;
+                ByteBuffer batch = pending;
+                pending = spare != null ? spare : ByteBuffer.allocate(INITIAL_BUFFER);
+                spare = null;
+                long target = appendedPosition;
+
+                lock.unlock();
+                IOException error = null;
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+
+                batch.clear();
+                spare = batch;
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durablePosition = target;
+                    syncCount++;
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+    }
+
+    // Number of force() calls so far; with group commit this grows slower than the record count
+    public long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDurablePosition() {
+        lock.lock();
+        try {
+            return durablePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Where recovery has to start for a checkpoint taken now: the durable
+    // position, or earlier if an intent logged before it is still unresolved,
+    // so recovery sees that intent again
+    public long getCheckpointPosition() {
+        lock.lock();
+        try {
+            long position = durablePosition;
+            for (long start : openIntents.values()) {
+                position = Math.min(position, start);
+            }
+            return position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void settle(List<IntentId> resolved) {
+        lock.lock();
+        try {
+            for (IntentId intent : resolved) {
+                openIntents.remove(intent);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long end;
+        lock.lock();
+        try {
+            end = appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitDurable(end);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Replays every complete frame of the log into the registry, creating
+    // accounts from OPEN records (holders come from users) and applying the
+    // other records to them in sequence order. Records older than an account's
+    // journal (already contained in a restored account) are skipped. A torn or
+    // corrupt tail is cut off so new frames continue from the last good one,
+    // and unresolved transfer intents are completed. Returns the number of
+    // records applied.
+    public static long recover(Path file, AccountRegistry registry, Function<String, User> users) throws IOException {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry cannot be null");
+        }
+        return recover(file, 0, registry, registry::get, users);
+    }
+
+    // Replays only the frames from startPosition on (for example the position
+    // recorded by a checkpoint). Accounts are looked up through accounts, which
+    // may hydrate them from a snapshot; new ones are added to registry.
+    public static long recover(Path file, long startPosition, AccountRegistry registry,
+                               LongFunction<BankAccount> accounts, Function<String, User> users) throws IOException {
+        if (registry == null || accounts == null || users == null) {
+            throw new IllegalArgumentException("Registry and lookups cannot be null");
+        }
+        if (!file.toFile().exists()) {
+            return 0;
+        }
+
+        long applied = 0;
+        Map<BankAccount, TreeMap<Long, Held>> held = new IdentityHashMap<>();
+        Map<IntentId, Intent> intents = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = Math.min(Math.max(startPosition, 0), size);
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+            ByteBuffer payload = ByteBuffer.allocate(INITIAL_BUFFER);
+
+            while (position + FRAME_HEADER <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length <= 0 || position + FRAME_HEADER + length > size) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                readFully(channel, payload, position + FRAME_HEADER);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                payload.flip();
+                while (payload.hasRemaining()) {
+                    applied += applyRecord(payload, registry, accounts, users, held, intents);
+                }
+                position += FRAME_HEADER + length;
+            }
+
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+            if (!held.isEmpty() || !intents.isEmpty()) {
+                int count = intents.size();
+                for (TreeMap<Long, Held> waiting : held.values()) {
+                    count += waiting.size();
+                }
+                ByteBuffer fixes = ByteBuffer.allocate(count * 2 * RECORD_SIZE);
+                applied += resolveGaps(fixes, held);
+                applied += resolveIntents(fixes, intents, accounts);
+                if (fixes.position() > 0) {
+                    writeFrame(channel, position, fixes);
+                }
+            }
+        }
+        return applied;
+    }
+
+    // Records still held at the end come after one lost with the torn tail.
+    // They are applied anyway, closing the gap, and logged again under the
+    // sequences they now have, each after a DROP of its old record, so later
+    // recoveries rebuild the same journal.
+    private static long resolveGaps(ByteBuffer payload, Map<BankAccount, TreeMap<Long, Held>> held) {
+        long count = 0;
+        for (Map.Entry<BankAccount, TreeMap<Long, Held>> entry : held.entrySet()) {
+            BankAccount account = entry.getKey();
+            long key = AccountKeys.encode(account.getAccountNumber());
+            for (Map.Entry<Long, Held> record : entry.getValue().entrySet()) {
+                Held h = record.getValue();
+                long sequence = account.getJournal().getNextSequence();
+                account.replay(TransactionType.fromCode(h.kind), h.amountMinor, h.timestamp);
+                payload.put(DROP).putLong(key).putLong(record.getKey()).putLong(0).putLong(h.timestamp);
+                payload.put(h.kind).putLong(key).putLong(sequence).putLong(h.amountMinor).putLong(h.timestamp);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // A crash between the two frames of a transfer leaves its intent open.
+    // The transfer is finished the way it would have been: credited if the
+    // receiver is active, refunded to the sender if not. The credit or refund
+    // is logged with a RESOLVED record so later recoveries see it done.
+    private static long resolveIntents(ByteBuffer payload, Map<IntentId, Intent> intents,
+                                       LongFunction<BankAccount> accounts) {
+        long count = 0;
+        for (Map.Entry<IntentId, Intent> entry : intents.entrySet()) {
+            IntentId id = entry.getKey();
+            Intent intent = entry.getValue();
+            BankAccount from = accounts.apply(id.key);
+            if (from == null) {
+                // Its debit was never logged either
+                continue;
+            }
+            BankAccount to = accounts.apply(intent.receiverKey);
+            BankAccount credited = to != null && to.isActive() ? to : from;
+            TransactionType type = credited == to ? TransactionType.DEPOSIT : TransactionType.REVERSAL;
+            long amountMinor = credited == to ? intent.creditMinor : intent.refundMinor;
+
+            long sequence = credited.getJournal().getNextSequence();
+            credited.replay(type, amountMinor, intent.timestamp);
+            payload.put((byte) type.getCode()).putLong(AccountKeys.encode(credited.getAccountNumber()))
+                    .putLong(sequence).putLong(amountMinor).putLong(intent.timestamp);
+            payload.put(RESOLVED).putLong(id.key).putLong(id.sequence).putLong(0).putLong(intent.timestamp);
+            count++;
+        }
+        return count;
+    }
+
+    private static void writeFrame(FileChannel channel, long position, ByteBuffer payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array(), 0, payload.position());
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.position());
+        frame.putInt(payload.position()).putInt((int) crc.getValue()).put(payload.array(), 0, payload.position());
+        frame.flip();
+        while (frame.hasRemaining()) {
+            position += channel.write(frame, position);
+        }
+        channel.force(true);
+    }
+
+    // Returns the number of records applied, which can include held ones this
+    // record was the gap before
+    private static long applyRecord(ByteBuffer payload, AccountRegistry registry, LongFunction<BankAccount> accounts,
+                                    Function<String, User> users, Map<BankAccount, TreeMap<Long, Held>> held,
+                                    Map<IntentId, Intent> intents) {
+        byte kind = payload.get();
+        long key = payload.getLong();
+        long sequence = payload.getLong();
+        long amountMinor = payload.getLong();
+        long timestamp = payload.getLong();
+
+        if (kind == INTENT) {
+            long receiverKey = payload.getLong();
+            long refundMinor = payload.getLong();
+            intents.put(new IntentId(key, sequence), new Intent(receiverKey, amountMinor, refundMinor, timestamp));
+            return 0;
+        }
+        if (kind == RESOLVED) {
+            // Its intent may predate the position recovery started from
+            intents.remove(new IntentId(key, sequence));
+            return 0;
+        }
+
+        if (kind == OPEN || kind == OPEN_INACTIVE) {
+            byte[] holderId = new byte[payload.getShort()];
+            payload.get(holderId);
+            if (accounts.apply(key) != null) {
+                return 0;
+            }
+            String userId = new String(holderId, StandardCharsets.UTF_8);
+            User holder = users.apply(userId);
+            if (holder == null) {
+                throw new IllegalStateException("Unknown account holder: " + userId);
+            }
+            // Keep journal sequences aligned with the original account so the
+            // sequence checks of later recoveries stay valid
+            boolean funded = amountMinor > 0;
+            BankAccount account = BankAccount.restore(AccountKeys.decode(key), holder, 0,
+                    kind == OPEN, funded ? sequence - 1 : sequence);
+            if (funded) {
+                account.replay(TransactionType.INITIAL_DEPOSIT, amountMinor, timestamp);
+            }
+            registry.register(account);
+            return 1;
+        }
+
+        BankAccount account = accounts.apply(key);
+        if (account == null) {
+            throw new IllegalStateException("Log refers to unknown account: " + AccountKeys.decode(key));
+        }
+        if (kind == TIER) {
+            // Tier records carry no sequence; replaying them in order leaves the latest
+            account.replayTier(AccountTier.values()[(int) amountMinor]);
+            return 1;
+        }
+        TreeMap<Long, Held> waiting = held.get(account);
+        if (kind == DROP) {
+            if (waiting != null && waiting.remove(sequence) != null && waiting.isEmpty()) {
+                held.remove(account);
+            }
+            return 0;
+        }
+        long next = account.getJournal().getNextSequence();
+        // Already counted by the snapshot or OPEN record the account came from
+        if (sequence < next) {
+            return 0;
+        }
+        if (sequence > next) {
+            if (waiting == null) {
+                waiting = new TreeMap<>();
+                held.put(account, waiting);
+            }
+            waiting.put(sequence, new Held(kind, amountMinor, timestamp));
+            return 0;
+        }
+        account.replay(TransactionType.fromCode(kind), amountMinor, timestamp);
+        long applied = 1;
+        if (waiting != null) {
+            Map.Entry<Long, Held> first;
+            while ((first = waiting.firstEntry()) != null
+                    && first.getKey() <= account.getJournal().getNextSequence()) {
+                waiting.pollFirstEntry();
+                if (first.getKey() == account.getJournal().getNextSequence()) {
+                    Held h = first.getValue();
+                    account.replay(TransactionType.fromCode(h.kind), h.amountMinor, h.timestamp);
+                    applied++;
+                }
+            }
+            if (waiting.isEmpty()) {
+                held.remove(account);
+            }
+        }
+        return applied;
+    }
+
+    // A record that reached the log ahead of an earlier one of its account
+    private static final class Held {
+        private final byte kind;
+        private final long amountMinor;
+        private final long timestamp;
+
+        private Held(byte kind, long amountMinor, long timestamp) {
+            this.kind = kind;
+            this.amountMinor = amountMinor;
+            this.timestamp = timestamp;
+        }
+    }
+
+    // Sender key and withdrawal sequence of a transfer
+    private static final class IntentId {
+        private final long key;
+        private final long sequence;
+
+        private IntentId(long key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IntentId)) {
+                return false;
+            }
+            IntentId other = (IntentId) o;
+            return key == other.key && sequence == other.sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key * 31 + sequence);
+        }
+    }
+
+    // A transfer debited but, as far as the log has shown, not yet credited or refunded
+    private static final class Intent {
+        private final long receiverKey;
+        private final long creditMinor;
+        private final long refundMinor;
+        private final long timestamp;
+
+        private Intent(long receiverKey, long creditMinor, long refundMinor, long timestamp) {
+            this.receiverKey = receiverKey;
+            this.creditMinor = creditMinor;
+            this.refundMinor = refundMinor;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+            position += read;
+        }
+    }
+
+    // Forwards an attached account's mutations to the log, holding them back
+    // until the account's OPEN record has been written
+    private final class Attachment implements AccountMutationListener {
+        private volatile boolean opened;
+
+        private synchronized void open() {
+            opened = true;
+            notifyAll();
+        }
+
+        private void awaitOpen() {
+            if (opened) {
+                return;
+            }
+            boolean interrupted = false;
+            synchronized (this) {
+                while (!opened) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onMutation(BankAccount account, TransactionType type, long amountMinor, long sequence,
+                               long timestamp) {
+            awaitOpen();
+            WriteAheadLog.this.onMutation(account, type, amountMinor, sequence, timestamp);
+        }
+
+        @Override
+        public void onTierChange(BankAccount account, AccountTier tier) {
+            awaitOpen();
+            WriteAheadLog.this.onTierChange(account, tier);
+        }
+    }
+
+    // Per-thread frame under construction
+    private final class Group {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+        private final List<IntentId> opened = new ArrayList<>();
+        private final List<IntentId> resolved = new ArrayList<>();
+        private int depth;
+
+        private void begin() {
+            depth++;
+        }
+
+        private void record(byte kind, long key, long sequence, long amountMinor, long timestamp) {
+            ensureCapacity(RECORD_SIZE);
+            buffer.put(kind).putLong(key).putLong(sequence).putLong(amountMinor).putLong(timestamp);
+        }
+
+        private void holderId(byte[] holderId) {
+            ensureCapacity(2 + holderId.length);
+            buffer.putShort((short) holderId.length).put(holderId);
+        }
+
+        private void intent(long receiverKey, long refundMinor) {
+            ensureCapacity(16);
+            buffer.putLong(receiverKey).putLong(refundMinor);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (buffer.remaining() < extra) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        private void end() {
+            if (depth == 0) {
+                throw new IllegalStateException("No group in progress");
+            }
+            if (--depth > 0 || buffer.position() == 0) {
+                return;
+            }
+            try {
+                awaitDurable(append(buffer, opened));
+                // Only now can a checkpoint start after these intents' frames
+                if (!resolved.isEmpty()) {
+                    settle(resolved);
+                }
+            } finally {
+                buffer.clear();
+                opened.clear();
+                resolved.clear();
+            }
+        }
+    }
+}
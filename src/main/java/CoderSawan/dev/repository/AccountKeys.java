@@ -0,0 +1,59 @@
+package CoderSawan.dev.repository;
+
+// Account numbers are 8-12 digits (see AccountValidator), so one fits in a long.
+// The digit count is kept in bits 40+ so numbers differing only in leading
+// zeros ("00012345" vs "000012345") stay distinct; a valid key is never 0.
+public final class AccountKeys {
+
+    public static final long INVALID = 0L;
+
+    private static final int MIN_LENGTH = 8;
+    private static final int MAX_LENGTH = 12;
+    private static final int LENGTH_SHIFT = 40;
+    private static final long VALUE_MASK = (1L << LENGTH_SHIFT) - 1;
+
+    private AccountKeys() {
+    }
+
+    // Returns INVALID rather than throwing, so hot lookups never allocate
+    public static long tryEncode(CharSequence accountNumber) {
+        if (accountNumber == null) {
+            return INVALID;
+        }
+        int length = accountNumber.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = accountNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return ((long) length << LENGTH_SHIFT) | value;
+    }
+
+    public static long encode(CharSequence accountNumber) {
+        long key = tryEncode(accountNumber);
+        if (key == INVALID) {
+            throw new IllegalArgumentException("Invalid account number: " + accountNumber);
+        }
+        return key;
+    }
+
+    public static String decode(long key) {
+        int length = (int) (key >>> LENGTH_SHIFT);
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Invalid account key: " + key);
+        }
+        char[] digits = new char[length];
+        long value = key & VALUE_MASK;
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,284 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.BankAccount;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+// Accounts keyed by their numeric account number (see AccountKeys) in
+// open-addressing tables of primitive longs. Writes lock one of a fixed set
+// of stripes; reads never lock.
+public class AccountRegistry {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(BankAccount[].class);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public AccountRegistry() {
+        this(0);
+    }
+
+    public AccountRegistry(int expectedAccounts) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("Expected accounts cannot be negative");
+        }
+        int perStripe = capacityFor(expectedAccounts / STRIPES + 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public void register(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        long key = AccountKeys.encode(account.getAccountNumber());
+        if (stripeFor(key).putIfAbsent(key, account) != null) {
+            throw new IllegalStateException("Account already registered: " + account.getAccountNumber());
+        }
+    }
+
+    // Returns the account already registered under the number, if any
+    public BankAccount registerIfAbsent(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        long key = AccountKeys.encode(account.getAccountNumber());
+        return stripeFor(key).putIfAbsent(key, account);
+    }
+
+    // Registers a batch, taking each stripe's lock once for all of its
+    // accounts. existing[i] receives the account already registered under
+    // the number of accounts[i], or null if accounts[i] was added.
+    public void registerAllIfAbsent(BankAccount[] accounts, int count, BankAccount[] existing) {
+        if (accounts == null || existing == null) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+        if (count < 0 || count > accounts.length || count > existing.length) {
+            throw new IllegalArgumentException("Invalid batch size: " + count);
+        }
+
+        // Counting sort of the batch by stripe
+        long[] keys = new long[count];
+        int[] stripeOf = new int[count];
+        int[] starts = new int[STRIPES + 1];
+        for (int i = 0; i < count; i++) {
+            if (accounts[i] == null) {
+                throw new IllegalArgumentException("Account cannot be null");
+            }
+            keys[i] = AccountKeys.encode(accounts[i].getAccountNumber());
+            stripeOf[i] = stripeIndex(keys[i]);
+            starts[stripeOf[i] + 1]++;
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            starts[s + 1] += starts[s];
+        }
+        int[] order = new int[count];
+        int[] fill = starts.clone();
+        for (int i = 0; i < count; i++) {
+            order[fill[stripeOf[i]]++] = i;
+        }
+
+        for (int s = 0; s < STRIPES; s++) {
+            if (starts[s] == starts[s + 1]) {
+                continue;
+            }
+            Stripe stripe = stripes[s];
+            synchronized (stripe) {
+                for (int j = starts[s]; j < starts[s + 1]; j++) {
+                    int i = order[j];
+                    existing[i] = stripe.putIfAbsent(keys[i], accounts[i]);
+                }
+            }
+        }
+    }
+
+    public BankAccount get(String accountNumber) {
+        long key = AccountKeys.tryEncode(accountNumber);
+        return key == AccountKeys.INVALID ? null : get(key);
+    }
+
+    public BankAccount get(long key) {
+        return stripeFor(key).get(key);
+    }
+
+    public boolean contains(String accountNumber) {
+        return get(accountNumber) != null;
+    }
+
+    public BankAccount remove(String accountNumber) {
+        long key = AccountKeys.tryEncode(accountNumber);
+        return key == AccountKeys.INVALID ? null : stripeFor(key).remove(key);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    // Weakly consistent: accounts added or removed during the walk may or may not be seen
+    public void forEach(Consumer<BankAccount> action) {
+        for (Stripe stripe : stripes) {
+            Table table = stripe.table;
+            for (int i = 0; i < table.values.length; i++) {
+                BankAccount account = (BankAccount) VALUES.getAcquire(table.values, i);
+                if (account != null) {
+                    action.accept(account);
+                }
+            }
+        }
+    }
+
+    private Stripe stripeFor(long key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    private static int stripeIndex(long key) {
+        return (int) (mix(key) >>> (64 - STRIPE_BITS));
+    }
+
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_STRIPE_CAPACITY;
+        while (capacity * 3L / 4 < entries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Keys and values are published with release/acquire: the value is stored
+    // before its key, so a reader that finds the key also sees the value.
+    // Removed entries keep their key with a null value (a tombstone) until the
+    // next resize, which rebuilds the table and publishes it in one write.
+    private static final class Table {
+        private final long[] keys;
+        private final BankAccount[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new BankAccount[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static final class Stripe {
+        private volatile Table table;
+        private volatile int size;
+        private int used;
+
+        private Stripe(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        private BankAccount get(long key) {
+            Table current = table;
+            int index = (int) mix(key) & current.mask;
+            while (true) {
+                long found = (long) KEYS.getAcquire(current.keys, index);
+                if (found == key) {
+                    return (BankAccount) VALUES.getAcquire(current.values, index);
+                }
+                if (found == AccountKeys.INVALID) {
+                    return null;
+                }
+                index = (index + 1) & current.mask;
+            }
+        }
+
+        private synchronized BankAccount putIfAbsent(long key, BankAccount account) {
+            Table current = table;
+            int index = (int) mix(key) & current.mask;
+            while (true) {
+                long found = current.keys[index];
+                if (found == key) {
+                    BankAccount existing = current.values[index];
+                    if (existing != null) {
+                        return existing;
+                    }
+                    VALUES.setRelease(current.values, index, account);
+                    size++;
+                    return null;
+                }
+                if (found == AccountKeys.INVALID) {
+                    break;
+                }
+                index = (index + 1) & current.mask;
+            }
+
+            if ((used + 1) > current.keys.length * 3L / 4) {
+                current = rebuild(capacityFor(size + 1));
+                index = (int) mix(key) & current.mask;
+                while (current.keys[index] != AccountKeys.INVALID) {
+                    index = (index + 1) & current.mask;
+                }
+            }
+            VALUES.setRelease(current.values, index, account);
+            KEYS.setRelease(current.keys, index, key);
+            used++;
+            size++;
+            return null;
+        }
+
+        private synchronized BankAccount remove(long key) {
+            Table current = table;
+            int index = (int) mix(key) & current.mask;
+            while (true) {
+                long found = current.keys[index];
+                if (found == key) {
+                    BankAccount existing = current.values[index];
+                    if (existing != null) {
+                        VALUES.setRelease(current.values, index, null);
+                        size--;
+                    }
+                    return existing;
+                }
+                if (found == AccountKeys.INVALID) {
+                    return null;
+                }
+                index = (index + 1) & current.mask;
+            }
+        }
+
+        // Caller holds the stripe monitor; drops tombstones
+        private Table rebuild(int capacity) {
+            Table old = table;
+            Table fresh = new Table(capacity);
+            int live = 0;
+            for (int i = 0; i < old.keys.length; i++) {
+                BankAccount account = old.values[i];
+                if (account == null) {
+                    continue;
+                }
+                long key = old.keys[i];
+                int index = (int) mix(key) & fresh.mask;
+                while (fresh.keys[index] != AccountKeys.INVALID) {
+                    index = (index + 1) & fresh.mask;
+                }
+                fresh.keys[index] = key;
+                fresh.values[index] = account;
+                live++;
+            }
+            used = live;
+            table = fresh;
+            return fresh;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.AccountMutationListener;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Secondary indexes over a UserStore, kept up to date as users are added:
+//
+//   - a hash index from normalized email (trimmed, lower case) to handle
+//   - one bitmap per age band, bit i set when user i is in the band
+//   - a bitmap of users holding at least one active account, maintained
+//     from the accounts' close / reactivate events
+//
+// Queries such as seniors with an active account are then bitmap
+// intersections instead of scans over every user. All methods synchronize
+// on the index; query results are copies the caller may keep.
+public class UserIndex implements AccountMutationListener {
+
+    public enum AgeBand {
+        YOUNG_ADULT(18, 29),
+        ADULT(30, 44),
+        MIDDLE_AGED(45, 59),
+        SENIOR(60, 120);
+
+        private final int minAge;
+        private final int maxAge;
+
+        AgeBand(int minAge, int maxAge) {
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+
+        public int getMinAge() {
+            return minAge;
+        }
+
+        public int getMaxAge() {
+            return maxAge;
+        }
+
+        public static AgeBand of(int age) {
+            for (AgeBand band : values()) {
+                if (age >= band.minAge && age <= band.maxAge) {
+                    return band;
+                }
+            }
+            throw new IllegalArgumentException("Age out of range: " + age);
+        }
+    }
+
+    private static final int EMPTY = 0;
+
+    private final UserStore store;
+    private final BitSet[] bands = new BitSet[AgeBand.values().length];
+    private final BitSet withActiveAccount = new BitSet();
+    // Open addressing, handle + 1 per slot, with the normalized email's hash
+    // alongside; only slots whose hash matches are read back from the store
+    private int[] emailSlots = new int[1024];
+    private int[] emailHashes = new int[1024];
+    private int emailCount;
+    private int indexed;
+    private int[] activeAccounts = new int[1024];
+    private final Map<BankAccount, Linked> accounts = new ConcurrentHashMap<>();
+
+    private static final class Linked {
+        final int handle;
+        boolean active;
+
+        Linked(int handle) {
+            this.handle = handle;
+        }
+    }
+
+    // Indexes the users already in the store
+    public UserIndex(UserStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("User store cannot be null");
+        }
+        this.store = store;
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new BitSet();
+        }
+        catchUp();
+    }
+
+    public synchronized int add(String userId, String name, String email, int age) {
+        catchUp();
+        int handle = store.add(userId, name, email, age);
+        catchUp();
+        return handle;
+    }
+
+    // Picks up users added to the store directly
+    public synchronized void catchUp() {
+        int size = store.size();
+        while (indexed < size) {
+            index(indexed++);
+        }
+    }
+
+    private void index(int handle) {
+        bands[AgeBand.of(store.getAge(handle)).ordinal()].set(handle);
+        if ((emailCount + 1) * 2 > emailSlots.length) {
+            rehash();
+        }
+        insertEmail(handle, normalize(store.getEmail(handle)).hashCode());
+        emailCount++;
+    }
+
+    private void insertEmail(int handle, int hash) {
+        int mask = emailSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (emailSlots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        emailSlots[slot] = handle + 1;
+        emailHashes[slot] = hash;
+    }
+
+    private void rehash() {
+        int[] oldSlots = emailSlots;
+        int[] oldHashes = emailHashes;
+        emailSlots = new int[oldSlots.length * 2];
+        emailHashes = new int[oldSlots.length * 2];
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                insertEmail(oldSlots[i] - 1, oldHashes[i]);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Handle of the first user registered with this email, or -1
+    public synchronized int findByEmail(String email) {
+        if (email == null) {
+            return -1;
+        }
+        catchUp();
+        String normalized = normalize(email);
+        int hash = normalized.hashCode();
+        int mask = emailSlots.length - 1;
+        int slot = spread(hash) & mask;
+        int found = -1;
+        for (int entry; (entry = emailSlots[slot]) != EMPTY; slot = (slot + 1) & mask) {
+            int handle = entry - 1;
+            if (emailHashes[slot] == hash && (found < 0 || handle < found)
+                    && normalize(store.getEmail(handle)).equals(normalized)) {
+                found = handle;
+            }
+        }
+        return found;
+    }
+
+    // Ties the account to its holder's handle and listens for its
+    // close / reactivate events
+    public void linkAccount(int handle, BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        if (handle < 0 || handle >= store.size()) {
+            throw new IllegalArgumentException("Unknown user handle: " + handle);
+        }
+        if (accounts.putIfAbsent(account, new Linked(handle)) != null) {
+            throw new IllegalStateException("Account is already linked");
+        }
+        account.addMutationListener(this);
+        refresh(account);
+    }
+
+    @Override
+    public void onMutation(BankAccount account, TransactionType type, long amountMinor, long sequence, long timestamp) {
+        if (type == TransactionType.ACCOUNT_CLOSED || type == TransactionType.ACCOUNT_REACTIVATED) {
+            refresh(account);
+        }
+    }
+
+    // Re-reads the account's state rather than applying the event as a
+    // delta, so an event racing with linkAccount is counted once
+    private synchronized void refresh(BankAccount account) {
+        Linked linked = accounts.get(account);
+        if (linked == null) {
+            return;
+        }
+        boolean active = account.isActive();
+        if (active == linked.active) {
+            return;
+        }
+        linked.active = active;
+        int handle = linked.handle;
+        if (handle >= activeAccounts.length) {
+            activeAccounts = Arrays.copyOf(activeAccounts, Math.max(handle + 1, activeAccounts.length * 2));
+        }
+        int count = activeAccounts[handle] += active ? 1 : -1;
+        withActiveAccount.set(handle, count > 0);
+    }
+
+    public synchronized BitSet usersInBand(AgeBand band) {
+        catchUp();
+        return (BitSet) bands[band.ordinal()].clone();
+    }
+
+    public synchronized BitSet usersWithActiveAccount() {
+        return (BitSet) withActiveAccount.clone();
+    }
+
+    public synchronized BitSet usersInBandWithActiveAccount(AgeBand band) {
+        catchUp();
+        BitSet result = (BitSet) bands[band.ordinal()].clone();
+        result.and(withActiveAccount);
+        return result;
+    }
+
+    public BitSet seniors() {
+        return usersInBand(AgeBand.SENIOR);
+    }
+
+    public BitSet seniorsWithActiveAccounts() {
+        return usersInBandWithActiveAccount(AgeBand.SENIOR);
+    }
+
+    public synchronized int countInBand(AgeBand band) {
+        catchUp();
+        return bands[band.ordinal()].cardinality();
+    }
+
+    public UserStore getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,298 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compact column store for customers. Users are identified by a dense int
+// handle and kept in pages of primitive columns instead of one object and
+// three Strings each:
+//
+//   - ids shaped like a prefix plus digits ("U000123") are a dictionary
+//     index for the prefix, the number and its digit count; other ids are
+//     kept as Strings on the side
+//   - the email domain is a dictionary index, so each domain is stored once
+//   - name and email local part are UTF-8 bytes in a shared byte arena
+//   - age is one byte
+//
+// get() materializes a User only when asked for one. Writes are serialized;
+// reads never lock: a user's columns are filled before size is published,
+// and pages never move once created.
+public class UserStore {
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_USERS = 1 << PAGE_SHIFT;
+    private static final int ARENA_PAGE_SHIFT = 20;
+    private static final int ARENA_PAGE_BYTES = 1 << ARENA_PAGE_SHIFT;
+    private static final int MAX_ID_DIGITS = 18;
+    private static final short NO_PREFIX = -1;
+
+    private volatile Page[] pages = new Page[16];
+    private volatile byte[][] arena = new byte[16][];
+    private volatile int size;
+    // Writer only
+    private int arenaPage = -1;
+    private int arenaOffset = ARENA_PAGE_BYTES;
+
+    private final Dictionary prefixes = new Dictionary();
+    private final Dictionary domains = new Dictionary();
+    private final Map<Integer, String> otherIds = new ConcurrentHashMap<>();
+
+    // Validates with the User constructor rules; returns the new user's handle
+    public synchronized int add(String userId, String name, String email, int age) {
+        new User(userId, name, email, age);
+        return append(userId, name, email, age);
+    }
+
+    public synchronized int add(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        return append(user.getUserId(), user.getName(), user.getEmail(), user.getAge());
+    }
+
+    private int append(String userId, String name, String email, int age) {
+        int handle = size;
+        int pageIndex = handle >>> PAGE_SHIFT;
+        Page[] directory = pages;
+        if (pageIndex == directory.length) {
+            Page[] grown = new Page[directory.length * 2];
+            System.arraycopy(directory, 0, grown, 0, directory.length);
+            pages = directory = grown;
+        }
+        if (directory[pageIndex] == null) {
+            directory[pageIndex] = new Page();
+        }
+        Page page = directory[pageIndex];
+        int slot = handle & (PAGE_USERS - 1);
+
+        encodeId(userId, handle, page, slot);
+
+        int at = email.lastIndexOf('@');
+        page.domains[slot] = domains.indexOf(email.substring(at + 1));
+        page.text[slot] = appendText(name.getBytes(StandardCharsets.UTF_8),
+                email.substring(0, at).getBytes(StandardCharsets.UTF_8));
+        page.ages[slot] = (byte) age;
+
+        size = handle + 1;
+        return handle;
+    }
+
+    private void encodeId(String userId, int handle, Page page, int slot) {
+        int digitsStart = userId.length();
+        while (digitsStart > 0 && userId.charAt(digitsStart - 1) >= '0' && userId.charAt(digitsStart - 1) <= '9') {
+            digitsStart--;
+        }
+        int digits = userId.length() - digitsStart;
+        if (digits > 0 && digits <= MAX_ID_DIGITS && prefixes.size() < Short.MAX_VALUE) {
+            page.idPrefixes[slot] = (short) prefixes.indexOf(userId.substring(0, digitsStart));
+            page.idNumbers[slot] = Long.parseLong(userId, digitsStart, userId.length(), 10);
+            page.idDigits[slot] = (byte) digits;
+        } else {
+            page.idPrefixes[slot] = NO_PREFIX;
+            otherIds.put(handle, userId);
+        }
+    }
+
+    // Stores [name length][name][local length][local] and returns its position
+    private int appendText(byte[] name, byte[] local) {
+        int length = varIntSize(name.length) + name.length + varIntSize(local.length) + local.length;
+        if (length > ARENA_PAGE_BYTES) {
+            throw new IllegalArgumentException("Name and email are too long");
+        }
+        if (arenaOffset + length > ARENA_PAGE_BYTES) {
+            arenaPage++;
+            if (arenaPage >= (Integer.MAX_VALUE >> ARENA_PAGE_SHIFT)) {
+                throw new IllegalStateException("User store text is full");
+            }
+            byte[][] pagesNow = arena;
+            if (arenaPage == pagesNow.length) {
+                byte[][] grown = new byte[pagesNow.length * 2][];
+                System.arraycopy(pagesNow, 0, grown, 0, pagesNow.length);
+                arena = pagesNow = grown;
+            }
+            pagesNow[arenaPage] = new byte[ARENA_PAGE_BYTES];
+            arenaOffset = 0;
+        }
+        byte[] target = arena[arenaPage];
+        int position = (arenaPage << ARENA_PAGE_SHIFT) | arenaOffset;
+        int offset = writeVarInt(target, arenaOffset, name.length);
+        System.arraycopy(name, 0, target, offset, name.length);
+        offset = writeVarInt(target, offset + name.length, local.length);
+        System.arraycopy(local, 0, target, offset, local.length);
+        arenaOffset = offset + local.length;
+        return position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Builds a User on each call; prefer the column getters in hot loops
+    public User get(int handle) {
+        return new User(getUserId(handle), getName(handle), getEmail(handle), getAge(handle));
+    }
+
+    public String getUserId(int handle) {
+        Page page = page(handle);
+        int slot = handle & (PAGE_USERS - 1);
+        short prefix = page.idPrefixes[slot];
+        if (prefix == NO_PREFIX) {
+            return otherIds.get(handle);
+        }
+        String digits = Long.toString(page.idNumbers[slot]);
+        StringBuilder id = new StringBuilder(prefixes.get(prefix));
+        for (int i = digits.length(); i < page.idDigits[slot]; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+
+    public String getName(int handle) {
+        return text(handle, false);
+    }
+
+    public String getEmail(int handle) {
+        Page page = page(handle);
+        return text(handle, true) + '@' + domains.get(page.domains[handle & (PAGE_USERS - 1)]);
+    }
+
+    public String getEmailDomain(int handle) {
+        return domains.get(page(handle).domains[handle & (PAGE_USERS - 1)]);
+    }
+
+    public int getAge(int handle) {
+        return page(handle).ages[handle & (PAGE_USERS - 1)];
+    }
+
+    public boolean isSenior(int handle) {
+        return getAge(handle) >= 60;
+    }
+
+    public int getDomainCount() {
+        return domains.size();
+    }
+
+    // Bytes held by the columns, text arena and dictionaries (array payloads
+    // plus headers; dictionary entries are estimated), for sizing
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Page page : pages) {
+            if (page != null) {
+                bytes += Page.BYTES;
+            }
+        }
+        for (byte[] text : arena) {
+            if (text != null) {
+                bytes += 16 + text.length;
+            }
+        }
+        bytes += prefixes.estimateBytes() + domains.estimateBytes();
+        bytes += otherIds.size() * 64L;
+        return bytes;
+    }
+
+    private Page page(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IllegalArgumentException("Unknown user handle: " + handle);
+        }
+        return pages[handle >>> PAGE_SHIFT];
+    }
+
+    private String text(int handle, boolean local) {
+        int position = page(handle).text[handle & (PAGE_USERS - 1)];
+        byte[] bytes = arena[position >>> ARENA_PAGE_SHIFT];
+        int offset = position & (ARENA_PAGE_BYTES - 1);
+        int length = readVarInt(bytes, offset);
+        offset += varIntSize(length);
+        if (local) {
+            offset += length;
+            length = readVarInt(bytes, offset);
+            offset += varIntSize(length);
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static int varIntSize(int value) {
+        return value < 0x80 ? 1 : value < 0x4000 ? 2 : 3;
+    }
+
+    private static int writeVarInt(byte[] target, int offset, int value) {
+        while (value >= 0x80) {
+            target[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int readVarInt(byte[] source, int offset) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = source[offset++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static final class Page {
+        // Payload of all columns plus one array header each
+        private static final long BYTES = 16 + 6 * 16 + PAGE_USERS * (8L + 2 + 1 + 4 + 4 + 1);
+
+        private final long[] idNumbers = new long[PAGE_USERS];
+        private final short[] idPrefixes = new short[PAGE_USERS];
+        private final byte[] idDigits = new byte[PAGE_USERS];
+        private final int[] text = new int[PAGE_USERS];
+        private final int[] domains = new int[PAGE_USERS];
+        private final byte[] ages = new byte[PAGE_USERS];
+    }
+
+    // Append-only string dictionary; lookups by index never lock
+    private static final class Dictionary {
+        // Writer only
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private volatile String[] values = new String[16];
+        private volatile int count;
+
+        // Writer only
+        private int indexOf(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = count;
+                String[] current = values;
+                if (index == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[index] = value;
+                values = current;
+                indexes.put(value, index);
+                count = index + 1;
+            }
+            return index;
+        }
+
+        private String get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return count;
+        }
+
+        private long estimateBytes() {
+            long bytes = 16 + 4L * values.length;
+            for (int i = 0; i < count; i++) {
+                // String, its array, a map entry and the boxed index
+                bytes += 24 + 16 + values[i].length() + 32 + 16;
+            }
+            return bytes;
+        }
+    }
+}
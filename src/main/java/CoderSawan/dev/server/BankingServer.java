@@ -0,0 +1,257 @@
+package CoderSawan.dev.server;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import CoderSawan.dev.service.TransactionService;
+import CoderSawan.dev.validator.AccountValidator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Plain-text HTTP front end over AccountRegistry and TransactionService.
+// Parameters come from the query string or a form-encoded body:
+//
+//   POST /accounts/open     accountNumber, userId, name, email, age, initialBalance
+//   POST /accounts/deposit  accountNumber, amount
+//   POST /accounts/withdraw accountNumber, amount
+//   POST /transfers         from, to, amount, optional idempotencyKey
+//   GET  /accounts/balance  accountNumber
+//   GET  /accounts/history  accountNumber
+//
+// The JDK server multiplexes idle connections on one selector thread, so
+// open connections cost no threads; handlers run on RequestExecutors. It
+// closes keep-alive connections beyond 200 idle ones unless the JVM runs with
+// -Dsun.net.httpserver.maxIdleConnections set higher (Main does this).
+public class BankingServer implements Closeable {
+
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final AccountRegistry registry;
+    private final TransactionService service;
+    private final AccountValidator validator = new AccountValidator();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public BankingServer(InetSocketAddress address, AccountRegistry registry, TransactionService service) throws IOException {
+        if (registry == null || service == null) {
+            throw new IllegalArgumentException("Registry and service cannot be null");
+        }
+        this.registry = registry;
+        this.service = service;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = RequestExecutors.newPerTaskExecutor(Runtime.getRuntime().availableProcessors() * 4);
+
+        server.createContext("/accounts/open", exchange -> handle(exchange, "POST", this::open));
+        server.createContext("/accounts/deposit", exchange -> handle(exchange, "POST", this::deposit));
+        server.createContext("/accounts/withdraw", exchange -> handle(exchange, "POST", this::withdraw));
+        server.createContext("/transfers", exchange -> handle(exchange, "POST", this::transfer));
+        server.createContext("/accounts/balance", exchange -> handle(exchange, "GET", this::balance));
+        server.createContext("/accounts/history", exchange -> handle(exchange, "GET", this::history));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================Handlers===========
+
+    private Response open(Map<String, String> params) {
+        String accountNumber = required(params, "accountNumber");
+        if (!validator.isValidAccountNumber(accountNumber)) {
+            throw new IllegalArgumentException("Invalid account number");
+        }
+        User holder = new User(required(params, "userId"), required(params, "name"),
+                required(params, "email"), parseInt(required(params, "age"), "age"));
+        String initial = params.get("initialBalance");
+        BankAccount account = new BankAccount(accountNumber, holder,
+                initial == null ? 0.0 : parseAmount(initial));
+        if (registry.registerIfAbsent(account) != null) {
+            return new Response(409, "Account already exists");
+        }
+        return new Response(201, "balance=" + account.getBalance());
+    }
+
+    private Response deposit(Map<String, String> params) {
+        BankAccount account = account(params, "accountNumber");
+        service.deposit(account, parseAmount(required(params, "amount")));
+        return new Response(200, "balance=" + account.getBalance());
+    }
+
+    private Response withdraw(Map<String, String> params) {
+        BankAccount account = account(params, "accountNumber");
+        service.withdraw(account, parseAmount(required(params, "amount")));
+        return new Response(200, "balance=" + account.getBalance());
+    }
+
+    private Response transfer(Map<String, String> params) {
+        BankAccount from = account(params, "from");
+        BankAccount to = account(params, "to");
+        double amount = parseAmount(required(params, "amount"));
+        String idempotencyKey = params.get("idempotencyKey");
+        if (idempotencyKey == null) {
+            service.transfer(from, to, amount);
+        } else {
+            service.transfer(from, to, amount, idempotencyKey);
+        }
+        return new Response(200, "balance=" + from.getBalance());
+    }
+
+    private Response balance(Map<String, String> params) {
+        BankAccount account = account(params, "accountNumber");
+        return new Response(200, "balance=" + account.getBalance() + "\nactive=" + account.isActive());
+    }
+
+    private Response history(Map<String, String> params) {
+        List<String> history = account(params, "accountNumber").getTransactionHistory();
+        StringBuilder body = new StringBuilder();
+        for (String entry : history) {
+            body.append(entry).append('\n');
+        }
+        return new Response(200, body.toString());
+    }
+
+    // ================Plumbing===========
+
+    private interface Handler {
+        Response apply(Map<String, String> params);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        Response response;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                response = new Response(405, "Method not allowed");
+            } else {
+                response = handler.apply(parameters(exchange));
+            }
+        } catch (NotFoundException e) {
+            response = new Response(404, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response = new Response(400, e.getMessage());
+        } catch (IllegalStateException e) {
+            response = new Response(409, e.getMessage());
+        } catch (RuntimeException e) {
+            // Anything else is our fault, e.g. a failed write-ahead log; the
+            // client still gets an answer instead of a dropped connection
+            response = new Response(500, "Internal server error");
+        }
+
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private BankAccount account(Map<String, String> params, String name) {
+        String accountNumber = required(params, name);
+        BankAccount account = registry.get(accountNumber);
+        if (account == null) {
+            throw new NotFoundException("Account not found: " + accountNumber);
+        }
+        return account;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static double parseAmount(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            parseForm(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1).trim(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package CoderSawan.dev.server;
+
+import CoderSawan.dev.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// Local load generator: opens every connection up front and keeps them all
+// open until the whole run is over, each sending its requests over
+// keep-alive. It is driven by one
+// selector thread, so the client side never needs a thread per connection.
+public class LoadGenerator {
+
+    private static final int RESPONSE_BUFFER_BYTES = 1024;
+
+    private final InetSocketAddress target;
+    private final int connections;
+    private final int requestsPerConnection;
+    private final byte[] request;
+
+    public LoadGenerator(InetSocketAddress target, int connections, int requestsPerConnection, String path) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        if (connections <= 0 || requestsPerConnection <= 0) {
+            throw new IllegalArgumentException("Connections and requests must be positive");
+        }
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Path must start with /");
+        }
+        this.target = target;
+        this.connections = connections;
+        this.requestsPerConnection = requestsPerConnection;
+        this.request = ("GET " + path + " HTTP/1.1\r\nHost: " + target.getHostString() + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public Result run(long timeout, TimeUnit unit) throws IOException {
+        Result result = new Result(connections);
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                try {
+                    if (channel.connect(target)) {
+                        connection.connected(selector, result);
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, connection);
+                    }
+                } catch (IOException e) {
+                    connection.fail(result);
+                }
+            }
+
+            while (result.finished < connections) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            connection.connected(selector, result);
+                        } else if (key.isWritable()) {
+                            connection.write(key);
+                        } else if (key.isReadable()) {
+                            connection.read(key, result);
+                        }
+                    } catch (IOException e) {
+                        connection.fail(result);
+                    }
+                }
+            }
+
+            // Whatever has not finished by the deadline timed out
+            for (SelectionKey key : selector.keys()) {
+                Connection connection = (Connection) key.attachment();
+                connection.fail(result);
+                connection.close();
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer out = ByteBuffer.wrap(request);
+        private final ByteBuffer in = ByteBuffer.allocate(RESPONSE_BUFFER_BYTES);
+        private int remaining = requestsPerConnection;
+        private long sentAt;
+        private boolean finished;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void connected(Selector selector, Result result) throws IOException {
+            result.connected++;
+            SelectionKey key = channel.keyFor(selector);
+            if (key == null) {
+                key = channel.register(selector, 0, this);
+            }
+            send(key);
+        }
+
+        private void send(SelectionKey key) throws IOException {
+            out.clear();
+            sentAt = System.nanoTime();
+            write(key);
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            channel.write(out);
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void read(SelectionKey key, Result result) throws IOException {
+            if (channel.read(in) < 0) {
+                fail(result);
+                return;
+            }
+            int length = responseLength();
+            if (length < 0) {
+                if (!in.hasRemaining()) {
+                    fail(result);
+                }
+                return;
+            }
+
+            result.latency.record(System.nanoTime() - sentAt);
+            if (startsWith("HTTP/1.1 200")) {
+                result.succeeded++;
+            } else {
+                result.failed++;
+            }
+            // Keep any bytes past this response (there should be none)
+            in.flip().position(length);
+            in.compact();
+
+            if (--remaining > 0) {
+                send(key);
+            } else {
+                // Stay connected until everyone is done
+                key.interestOps(0);
+                finished = true;
+                result.finished++;
+            }
+        }
+
+        // Full response length, or -1 while headers or body are incomplete.
+        // A response that cannot be framed fails the connection.
+        private int responseLength() throws IOException {
+            int end = in.position();
+            int headerEnd = -1;
+            for (int i = 3; i < end; i++) {
+                if (in.get(i - 3) == '\r' && in.get(i - 2) == '\n' && in.get(i - 1) == '\r' && in.get(i) == '\n') {
+                    headerEnd = i + 1;
+                    break;
+                }
+            }
+            if (headerEnd < 0) {
+                return -1;
+            }
+            String headers = new String(in.array(), 0, headerEnd, StandardCharsets.US_ASCII).toLowerCase();
+            int at = headers.indexOf("content-length:");
+            int bodyLength = 0;
+            if (at >= 0) {
+                int lineEnd = headers.indexOf('\r', at);
+                try {
+                    bodyLength = Integer.parseInt(headers.substring(at + "content-length:".length(), lineEnd).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed Content-Length", e);
+                }
+                if (bodyLength < 0) {
+                    throw new IOException("Malformed Content-Length");
+                }
+            }
+            int total = headerEnd + bodyLength;
+            return total <= end ? total : -1;
+        }
+
+        private boolean startsWith(String prefix) {
+            for (int i = 0; i < prefix.length(); i++) {
+                if (in.get(i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void fail(Result result) {
+            if (finished) {
+                return;
+            }
+            // Requests this connection never got to send count as failures too
+            result.failed += remaining;
+            remaining = 0;
+            finished = true;
+            result.finished++;
+            close();
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    public static final class Result {
+        private final int connections;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private int connected;
+        private int finished;
+        private long succeeded;
+        private long failed;
+        private long elapsedNanos;
+
+        private Result(int connections) {
+            this.connections = connections;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public int getEstablishedConnections() {
+            return connected;
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return "Result{" +
+                    "connections=" + connections +
+                    ", establishedConnections=" + connected +
+                    ", succeeded=" + succeeded +
+                    ", failed=" + failed +
+                    ", requestsPerSecond=" + (long) (succeeded / Math.max(seconds, 1e-9)) +
+                    ", p50Micros=" + latency.getPercentile(50) / 1000 +
+                    ", p99Micros=" + latency.getPercentile(99) / 1000 +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package CoderSawan.dev.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The build targets Java 17, so virtual threads are looked up reflectively:
+// on 21+ every request gets its own virtual thread, on older runtimes we
+// fall back to a fixed pool of platform threads
+public final class RequestExecutors {
+
+    private static final Method VIRTUAL_PER_TASK = findVirtualPerTask();
+
+    private RequestExecutors() {
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_PER_TASK != null;
+    }
+
+    public static ExecutorService newPerTaskExecutor(int fallbackThreads) {
+        if (fallbackThreads <= 0) {
+            throw new IllegalArgumentException("Fallback thread count must be positive");
+        }
+        if (VIRTUAL_PER_TASK != null) {
+            try {
+                return (ExecutorService) VIRTUAL_PER_TASK.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(fallbackThreads);
+    }
+
+    private static Method findVirtualPerTask() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
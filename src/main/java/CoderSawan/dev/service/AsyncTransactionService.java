@@ -0,0 +1,145 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Non-blocking facade over TransactionService. Each call queues the work on
+// a fixed set of workers and returns at once with a future, so one client
+// can keep many operations in flight. The queue is bounded: when it is full
+// the call returns a future already failed with RejectedExecutionException,
+// and callers can check getRemainingCapacity() to slow down before that.
+//
+// Queued operations may run in any order; chain futures where one depends
+// on another. Callbacks attached without an executor run on a worker.
+public class AsyncTransactionService implements Closeable {
+
+    private final TransactionService service;
+    private final ThreadPoolExecutor workers;
+    private final int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public AsyncTransactionService(TransactionService service, int workerCount, int queueCapacity) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (workerCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Worker count and queue capacity must be positive");
+        }
+        this.service = service;
+        this.capacity = workerCount + queueCapacity;
+        AtomicInteger threadIndex = new AtomicInteger();
+        // The in-flight count enforces the bound; the queue is sized so it
+        // never fills first, even before workers have taken their tasks
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transaction-worker-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        workers.prestartAllCoreThreads();
+    }
+
+    // Rejections come back as result codes, not failed futures
+    public CompletableFuture<TransactionResult> transfer(BankAccount fromAccount, BankAccount toAccount, double amount) {
+        return submit(() -> service.tryTransfer(fromAccount, toAccount, amount));
+    }
+
+    public CompletableFuture<Void> transfer(BankAccount fromAccount, BankAccount toAccount, double amount,
+                                            String idempotencyKey) {
+        return submit(() -> {
+            service.transfer(fromAccount, toAccount, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    public CompletableFuture<BatchTransferResult> transferBatch(List<TransferRequest> requests) {
+        return submit(() -> service.transferBatch(requests));
+    }
+
+    public CompletableFuture<TransactionResult> withdraw(BankAccount account, double amount) {
+        return submit(() -> service.tryWithdraw(account, amount));
+    }
+
+    public CompletableFuture<Void> deposit(BankAccount account, double amount) {
+        return submit(() -> {
+            service.deposit(account, amount);
+            return null;
+        });
+    }
+
+    // Operations queued or running
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // How many more operations would be accepted right now
+    public int getRemainingCapacity() {
+        return Math.max(0, capacity - inFlight.get());
+    }
+
+    // Calls turned away because the queue was full
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    // Stops accepting work and waits for what is already queued
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (inFlight.incrementAndGet() > capacity) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("Transaction queue is full"));
+            return future;
+        }
+        try {
+            workers.execute(() -> {
+                T value;
+                try {
+                    value = operation.get();
+                } catch (Throwable e) {
+                    // Errors too: the slot must be freed and the caller told
+                    inFlight.decrementAndGet();
+                    future.completeExceptionally(e);
+                    if (e instanceof Error) {
+                        throw (Error) e;
+                    }
+                    return;
+                }
+                inFlight.decrementAndGet();
+                future.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed
+            inFlight.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,55 @@
+package CoderSawan.dev.service;
+
+// Outcome of each item of a batch, in submission order
+public class BatchTransferResult {
+    private final RuntimeException[] failures;
+    private int failedCount;
+
+    BatchTransferResult(int size) {
+        this.failures = new RuntimeException[size];
+    }
+
+    void fail(int index, RuntimeException failure) {
+        if (failures[index] == null) {
+            failedCount++;
+        }
+        failures[index] = failure;
+    }
+
+    void clear(int index) {
+        if (failures[index] != null) {
+            failedCount--;
+        }
+        failures[index] = null;
+    }
+
+    public int size() {
+        return failures.length;
+    }
+
+    public boolean isApplied(int index) {
+        return failures[index] == null;
+    }
+
+    // Same exception transfer() would have thrown for this item, or null if applied
+    public RuntimeException getFailure(int index) {
+        return failures[index];
+    }
+
+    public int getAppliedCount() {
+        return failures.length - failedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchTransferResult{" +
+                "size=" + failures.length +
+                ", applied=" + getAppliedCount() +
+                ", failed=" + failedCount +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package CoderSawan.dev.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded many-producer, single-consumer ring. Every slot carries the ticket
+// it expects next, so producers claim a slot with one CAS on the tail and the
+// consumer never writes to a shared counter.
+final class CommandRing<T> {
+
+    private final Object[] items;
+    private final AtomicLongArray tickets;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Consumer thread only
+    private long head;
+
+    CommandRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.items = new Object[capacity];
+        this.tickets = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            tickets.set(i, i);
+        }
+    }
+
+    // Returns false when the ring is full
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long ticket = tickets.get(index);
+            if (ticket == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    // A full volatile write, not lazySet: a producer reads the
+                    // consumer's sleeping flag next, and only a volatile store
+                    // is ordered before that load. With lazySet the consumer
+                    // could see an empty ring and the producer an awake
+                    // consumer, and the command would sit until the next wake.
+                    tickets.set(index, position + 1);
+                    return true;
+                }
+            } else if (ticket < position) {
+                return false;
+            }
+        }
+    }
+
+    // Consumer thread only; null when empty
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int index = (int) head & mask;
+        if (tickets.get(index) != head + 1) {
+            return null;
+        }
+        T item = (T) items[index];
+        items[index] = null;
+        tickets.lazySet(index, head + items.length);
+        head++;
+        return item;
+    }
+
+    boolean isEmpty() {
+        return tickets.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,219 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.AccountTier;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.Money;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+// Transfer fee and maximum transfer amount, compiled from rules into flat
+// arrays so a lookup is a few index computations. Instances are immutable;
+// PolicyEngine publishes new ones.
+//
+// Rules are properties; amounts are in major units:
+//
+//   bands=1000,10000                 upper bounds of the amount bands
+//   fee=5.00                         fee for every transfer
+//   fee.PREMIUM=2.50                 ... for one tier
+//   fee.senior=2.00                  ... for senior (or regular) holders
+//   fee.band2=10.00                  ... for one amount band, counted from 0
+//   fee.STANDARD.senior.band0=0      qualifiers combine in this order
+//   limit=50000                      maximum single transfer
+//   limit.BUSINESS.regular=250000    limits take tier and holder qualifiers
+//
+// The most specific matching rule wins: tier over holder over band. Bands
+// are [0, 1000), [1000, 10000) and [10000, +inf) in the example above.
+public final class FeePolicy {
+
+    private static final int TIERS = AccountTier.values().length;
+    private static final int NO_BAND = -1;
+
+    public static final double DEFAULT_FEE = 5.0;
+    public static final double DEFAULT_LIMIT = 50000.0;
+    // Declared after TIERS, which compile() needs
+    public static final FeePolicy DEFAULT = compile(new Properties());
+
+    // Exclusive upper bounds in minor units, ascending
+    private final long[] bandBounds;
+    private final int bandCount;
+    // Indexed by (tier * 2 + senior) * bandCount + band
+    private final long[] feesMinor;
+    private final double[] fees;
+    // Indexed by tier * 2 + senior
+    private final double[] limits;
+
+    private FeePolicy(long[] bandBounds, long[] feesMinor, double[] limits) {
+        this.bandBounds = bandBounds;
+        this.bandCount = bandBounds.length + 1;
+        this.feesMinor = feesMinor;
+        this.fees = new double[feesMinor.length];
+        for (int i = 0; i < feesMinor.length; i++) {
+            fees[i] = Money.toMajor(feesMinor[i]);
+        }
+        this.limits = limits;
+    }
+
+    public static FeePolicy compile(Properties rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        long[] bounds = parseBands(rules.getProperty("bands"));
+        int bandCount = bounds.length + 1;
+
+        long[] fees = new long[TIERS * 2 * bandCount];
+        int[] feeSpecificity = new int[fees.length];
+        Arrays.fill(fees, Money.toMinor(DEFAULT_FEE));
+        Arrays.fill(feeSpecificity, -1);
+        long[] limits = new long[TIERS * 2];
+        int[] limitSpecificity = new int[limits.length];
+        Arrays.fill(limits, Money.toMinor(DEFAULT_LIMIT));
+        Arrays.fill(limitSpecificity, -1);
+
+        for (String key : rules.stringPropertyNames()) {
+            if (key.equals("bands")) {
+                continue;
+            }
+            String[] parts = key.split("\\.");
+            boolean fee = parts[0].equals("fee");
+            if (!fee && !parts[0].equals("limit")) {
+                throw new IllegalArgumentException("Unknown policy rule: " + key);
+            }
+            int tier = -1;
+            int senior = -1;
+            int band = NO_BAND;
+            int at = 1;
+            if (at < parts.length && isTier(parts[at])) {
+                tier = AccountTier.valueOf(parts[at++]).ordinal();
+            }
+            if (at < parts.length && (parts[at].equals("senior") || parts[at].equals("regular"))) {
+                senior = parts[at++].equals("senior") ? 1 : 0;
+            }
+            if (fee && at < parts.length && parts[at].startsWith("band")) {
+                band = parseBand(key, parts[at++].substring(4), bandCount);
+            }
+            if (at != parts.length) {
+                throw new IllegalArgumentException("Unknown policy rule: " + key);
+            }
+            long amount = parseAmount(key, rules.getProperty(key));
+            int specificity = (tier >= 0 ? 4 : 0) + (senior >= 0 ? 2 : 0) + (band != NO_BAND ? 1 : 0);
+
+            for (int t = 0; t < TIERS; t++) {
+                for (int s = 0; s < 2; s++) {
+                    if ((tier >= 0 && t != tier) || (senior >= 0 && s != senior)) {
+                        continue;
+                    }
+                    if (!fee) {
+                        int cell = t * 2 + s;
+                        if (specificity > limitSpecificity[cell]) {
+                            limits[cell] = amount;
+                            limitSpecificity[cell] = specificity;
+                        }
+                        continue;
+                    }
+                    for (int b = 0; b < bandCount; b++) {
+                        int cell = (t * 2 + s) * bandCount + b;
+                        if ((band == NO_BAND || b == band) && specificity > feeSpecificity[cell]) {
+                            fees[cell] = amount;
+                            feeSpecificity[cell] = specificity;
+                        }
+                    }
+                }
+            }
+        }
+
+        double[] limitsMajor = new double[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            limitsMajor[i] = Money.toMajor(limits[i]);
+        }
+        return new FeePolicy(bounds, fees, limitsMajor);
+    }
+
+    private static boolean isTier(String name) {
+        for (AccountTier tier : AccountTier.values()) {
+            if (tier.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] parseBands(String value) {
+        if (value == null || value.isBlank()) {
+            return new long[0];
+        }
+        String[] parts = value.split(",");
+        long[] bounds = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            bounds[i] = parseAmount("bands", parts[i]);
+            if (bounds[i] <= 0 || (i > 0 && bounds[i] <= bounds[i - 1])) {
+                throw new IllegalArgumentException("Band bounds must be positive and ascending: " + value);
+            }
+        }
+        return bounds;
+    }
+
+    private static int parseBand(String key, String index, int bandCount) {
+        try {
+            int band = Integer.parseInt(index);
+            if (band >= 0 && band < bandCount) {
+                return band;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Unknown amount band in policy rule: " + key);
+    }
+
+    private static long parseAmount(String key, String value) {
+        double amount;
+        try {
+            amount = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount for " + key + ": " + value);
+        }
+        if (!(amount >= 0)) {
+            throw new IllegalArgumentException("Amount for " + key + " cannot be negative");
+        }
+        return Money.toMinor(amount);
+    }
+
+    private int band(long amountMinor) {
+        int band = 0;
+        while (band < bandBounds.length && amountMinor >= bandBounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static int holder(BankAccount account) {
+        return account.getTier().ordinal() * 2 + (account.getAccountHolder().isSenior() ? 1 : 0);
+    }
+
+    public long feeMinor(BankAccount account, long amountMinor) {
+        return feesMinor[holder(account) * bandCount + band(amountMinor)];
+    }
+
+    public double fee(BankAccount account, double amount) {
+        return fees[holder(account) * bandCount + band(Money.toMinor(amount))];
+    }
+
+    public double maxTransfer(BankAccount account) {
+        return limits[holder(account)];
+    }
+
+    public double getFee(AccountTier tier, boolean senior, int band) {
+        if (band < 0 || band >= bandCount) {
+            throw new IllegalArgumentException("Unknown amount band: " + band);
+        }
+        return fees[(tier.ordinal() * 2 + (senior ? 1 : 0)) * bandCount + band];
+    }
+
+    public double getMaxTransfer(AccountTier tier, boolean senior) {
+        return limits[tier.ordinal() * 2 + (senior ? 1 : 0)];
+    }
+
+    public int getBandCount() {
+        return bandCount;
+    }
+}
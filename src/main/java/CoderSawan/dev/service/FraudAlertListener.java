@@ -0,0 +1,12 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+
+// Told about transfers scoring at or over FraudScorer's review threshold.
+// Runs on the transfer thread in INLINE mode and on the scorer's worker in
+// ASYNC mode, outside the scoring latency budget, so implementations should
+// hand off anything slow. Exceptions are counted by the scorer and dropped.
+public interface FraudAlertListener {
+
+    void onAlert(BankAccount from, BankAccount to, double amount, double score);
+}
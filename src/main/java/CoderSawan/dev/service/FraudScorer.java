@@ -0,0 +1,375 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scores transfers against what each sending account usually does. State per
+// account is a few primitives, updated in O(1) per transfer:
+//
+//   - EWMA mean and variance of log(1 + amount), for spikes in amount,
+//     learning from outliers only up to three standard deviations
+//   - transfer count, so young accounts are not judged on too little history
+//   - a counterparty sketch (one bit per hashed receiver) and an EWMA of
+//     how often the receiver is new, for sudden fan-out. The sketch has two
+//     256-bit generations, rotated every GENERATION transfers, so receivers
+//     not paid for a while count as new again and the bits never saturate.
+//
+// Scores run from 0 to 100. INLINE mode scores before any lock is taken and
+// blocks transfers at or over the block threshold. ASYNC mode lets every
+// transfer through and scores it afterwards on a background thread. Both
+// report transfers at or over the review threshold to the alert listener.
+//
+// Scoring has a latency budget: if an account's state cannot be taken within
+// it (another transfer from the same account holds it), the transfer passes
+// unscored and the overrun is counted. The alert listener is outside the
+// budget: in INLINE mode it runs on the transferring thread after scoring, so
+// it should only hand the alert off. Exceptions it throws are counted and
+// never reach the transfer.
+public class FraudScorer implements Closeable {
+
+    public enum Mode {
+        INLINE,
+        ASYNC
+    }
+
+    public static final double DEFAULT_REVIEW_THRESHOLD = 50;
+    public static final double DEFAULT_BLOCK_THRESHOLD = 80;
+    public static final long DEFAULT_BUDGET_NANOS = 50_000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+
+    // Transfers seen before amounts and receivers are judged
+    private static final int WARMUP = 5;
+    private static final double AMOUNT_ALPHA = 0.1;
+    private static final double NEW_RATE_ALPHA = 0.2;
+    // Floor on the standard deviation of log amounts, about a 10% change
+    private static final double MIN_DEVIATION = 0.1;
+    // Deviations learned from are clipped to this many standard deviations
+    private static final double SPIKE_CLIP = 3;
+    private static final double SPIKE_WEIGHT = 60;
+    private static final double NEW_COUNTERPARTY_WEIGHT = 15;
+    private static final double FAN_OUT_WEIGHT = 25;
+    // Transfers per counterparty sketch generation
+    private static final int GENERATION = 64;
+
+    private final Mode mode;
+    private final double reviewThreshold;
+    private final double blockThreshold;
+    private final long budgetNanos;
+    private final Map<BankAccount, Profile> profiles = new ConcurrentHashMap<>();
+    private final BlockingQueue<Observation> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile FraudAlertListener alertListener;
+
+    private final LongAdder scored = new LongAdder();
+    private final LongAdder flagged = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+
+    public FraudScorer(Mode mode) {
+        this(mode, DEFAULT_REVIEW_THRESHOLD, DEFAULT_BLOCK_THRESHOLD, DEFAULT_BUDGET_NANOS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public FraudScorer(Mode mode, double reviewThreshold, double blockThreshold, long budgetNanos, int queueCapacity) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode cannot be null");
+        }
+        if (!(reviewThreshold >= 0) || !(blockThreshold >= reviewThreshold)) {
+            throw new IllegalArgumentException("Thresholds must satisfy 0 <= review <= block");
+        }
+        if (budgetNanos <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Budget and queue capacity must be positive");
+        }
+        this.mode = mode;
+        this.reviewThreshold = reviewThreshold;
+        this.blockThreshold = blockThreshold;
+        this.budgetNanos = budgetNanos;
+        if (mode == Mode.ASYNC) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.worker = new Thread(this::drain, "fraud-scorer");
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            this.queue = null;
+            this.worker = null;
+        }
+    }
+
+    // Before the transfer: SUCCESS, or FRAUD_SUSPECTED when INLINE mode
+    // blocks it
+    public TransactionResult screen(BankAccount from, BankAccount to, double amount) {
+        if (mode == Mode.ASYNC) {
+            return TransactionResult.SUCCESS;
+        }
+        double score = score(from, to, amount, false);
+        report(from, to, amount, score);
+        if (score >= blockThreshold) {
+            blocked.increment();
+            return TransactionResult.FRAUD_SUSPECTED;
+        }
+        return TransactionResult.SUCCESS;
+    }
+
+    // After a transfer went through: learns from it, scoring it first in
+    // ASYNC mode. INLINE mode already scored it in screen, so it only learns.
+    // Never blocks; a full queue drops the observation.
+    public void afterTransfer(BankAccount from, BankAccount to, double amount) {
+        if (mode == Mode.INLINE) {
+            learn(from, to, amount);
+        } else if (!queue.offer(new Observation(from, to, amount))) {
+            dropped.increment();
+        }
+    }
+
+    // Score the transfer would get now, without learning from it; -1 when
+    // the budget ran out
+    public double score(BankAccount from, BankAccount to, double amount) {
+        return score(from, to, amount, false);
+    }
+
+    private double score(BankAccount from, BankAccount to, double amount, boolean learn) {
+        Profile profile = profileOf(from);
+        if (!profile.tryLock(System.nanoTime() + budgetNanos)) {
+            overruns.increment();
+            return -1;
+        }
+        double score;
+        try {
+            score = profile.score(to, amount);
+            if (learn) {
+                profile.observe(to, amount);
+            }
+        } finally {
+            profile.unlock();
+        }
+        return score;
+    }
+
+    private void learn(BankAccount from, BankAccount to, double amount) {
+        Profile profile = profileOf(from);
+        if (!profile.tryLock(System.nanoTime() + budgetNanos)) {
+            overruns.increment();
+            return;
+        }
+        try {
+            profile.observe(to, amount);
+        } finally {
+            profile.unlock();
+        }
+    }
+
+    private void report(BankAccount from, BankAccount to, double amount, double score) {
+        if (score < 0) {
+            return;
+        }
+        scored.increment();
+        if (score >= reviewThreshold) {
+            flagged.increment();
+            FraudAlertListener listener = alertListener;
+            if (listener != null) {
+                try {
+                    listener.onAlert(from, to, amount, score);
+                } catch (RuntimeException e) {
+                    // Transfers must not fail because alerting did
+                    listenerFailures.increment();
+                }
+            }
+        }
+    }
+
+    private Profile profileOf(BankAccount account) {
+        Profile profile = profiles.get(account);
+        if (profile == null) {
+            Profile created = new Profile();
+            profile = profiles.putIfAbsent(account, created);
+            if (profile == null) {
+                profile = created;
+            }
+        }
+        return profile;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Observation observation = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (observation != null) {
+                    report(observation.from, observation.to, observation.amount,
+                            score(observation.from, observation.to, observation.amount, true));
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // One bad observation must not stop scoring
+            }
+        }
+    }
+
+    // Observations waiting for the ASYNC worker
+    public int getPending() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public void setAlertListener(FraudAlertListener alertListener) {
+        this.alertListener = alertListener;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getScored() {
+        return scored.sum();
+    }
+
+    public long getFlagged() {
+        return flagged.sum();
+    }
+
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    public long getBudgetOverruns() {
+        return overruns.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getListenerFailures() {
+        return listenerFailures.sum();
+    }
+
+    // Scores what is already queued, then stops the ASYNC worker
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Observation {
+        private final BankAccount from;
+        private final BankAccount to;
+        private final double amount;
+
+        private Observation(BankAccount from, BankAccount to, double amount) {
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+    }
+
+    static final class Profile {
+        private static final VarHandle BUSY;
+
+        static {
+            try {
+                BUSY = MethodHandles.lookup().findVarHandle(Profile.class, "busy", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // Fields below are guarded by busy
+        private volatile int busy;
+        private double mean;
+        private double variance;
+        private long count;
+        private double newRate;
+        // Receivers of this generation and of the one before it
+        private long[] recent = new long[4];
+        private long[] older = new long[4];
+
+        // Spins until the deadline at most; contention only comes from
+        // transfers out of the same account
+        boolean tryLock(long deadline) {
+            while (!BUSY.compareAndSet(this, 0, 1)) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+            return true;
+        }
+
+        void unlock() {
+            busy = 0;
+        }
+
+        double score(BankAccount to, double amount) {
+            if (count < WARMUP) {
+                return 0;
+            }
+            double deviation = Math.max(Math.sqrt(variance), MIN_DEVIATION);
+            double z = (Math.log1p(amount) - mean) / deviation;
+            double spike = clamp((z - 2) / 4);
+
+            boolean fresh = isNew(to);
+            double rate = newRate + NEW_RATE_ALPHA * ((fresh ? 1 : 0) - newRate);
+            double fanOut = clamp((rate - 0.3) / 0.5);
+
+            return SPIKE_WEIGHT * spike + (fresh ? NEW_COUNTERPARTY_WEIGHT : 0) + FAN_OUT_WEIGHT * fanOut;
+        }
+
+        void observe(BankAccount to, double amount) {
+            double x = Math.log1p(amount);
+            if (count == 0) {
+                mean = x;
+            } else {
+                // Winsorized, so a run of outliers is not learned as normal
+                // after one or two transfers
+                double limit = SPIKE_CLIP * Math.max(Math.sqrt(variance), MIN_DEVIATION);
+                double delta = Math.max(-limit, Math.min(limit, x - mean));
+                mean += AMOUNT_ALPHA * delta;
+                variance = (1 - AMOUNT_ALPHA) * (variance + AMOUNT_ALPHA * delta * delta);
+            }
+            boolean fresh = isNew(to);
+            newRate += NEW_RATE_ALPHA * ((fresh ? 1 : 0) - newRate);
+            int bit = bitOf(to);
+            recent[bit >>> 6] |= 1L << bit;
+            count++;
+            if (count % GENERATION == 0) {
+                long[] cleared = older;
+                Arrays.fill(cleared, 0);
+                older = recent;
+                recent = cleared;
+            }
+        }
+
+        private boolean isNew(BankAccount to) {
+            int bit = bitOf(to);
+            long mask = 1L << bit;
+            return ((recent[bit >>> 6] | older[bit >>> 6]) & mask) == 0;
+        }
+
+        private static int bitOf(BankAccount to) {
+            int hash = to.getAccountNumber().hashCode() * 0x9E3779B9;
+            return hash >>> 24;
+        }
+
+        private static double clamp(double value) {
+            return Math.max(0, Math.min(1, value));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package CoderSawan.dev.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers the outcome of keyed operations so a retried request returns the
+// original result instead of running again. Keys are spread over segments,
+// each an access-ordered map capped at its share of the capacity (least
+// recently used key goes first); entries also expire after the TTL. A retry
+// that arrives while the original is still running waits for its outcome.
+// Running operations are held apart from the capped map until they finish,
+// so neither the cap nor the TTL can evict one and let a retry run it twice.
+//
+// A retry only takes its segment's monitor for a map lookup, never an
+// account lock.
+public class IdempotencyCache {
+
+    public static final int DEFAULT_CAPACITY = 100_000;
+    public static final long DEFAULT_TTL_HOURS = 24;
+
+    private static final int SEGMENTS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+
+    public IdempotencyCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_HOURS, TimeUnit.HOURS);
+    }
+
+    public IdempotencyCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Capacity must be at least " + SEGMENTS);
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        this.ttlNanos = unit.toNanos(ttl);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity / SEGMENTS);
+        }
+    }
+
+    // Runs operation unless key has been seen; a repeat gets the original
+    // outcome (the same exception instance if it failed). Reusing a key for
+    // a different request is rejected.
+    public void execute(String key, Object request, Runnable operation) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Idempotency key cannot be empty");
+        }
+        if (request == null || operation == null) {
+            throw new IllegalArgumentException("Request and operation cannot be null");
+        }
+
+        Segment segment = segments[(key.hashCode() * 0x9e3779b9) >>> 26];
+        long now = System.nanoTime();
+        Entry entry = new Entry(request, now + ttlNanos);
+        Entry existing;
+        synchronized (segment) {
+            existing = segment.inFlight.get(key);
+            if (existing == null) {
+                existing = segment.get(key);
+                if (existing != null && existing.expiresAt - now <= 0) {
+                    segment.remove(key);
+                    existing = null;
+                }
+            }
+            if (existing == null) {
+                segment.inFlight.put(key, entry);
+                segment.evictExpired(now);
+            }
+        }
+
+        if (existing != null) {
+            hits.increment();
+            if (!existing.request.equals(request)) {
+                throw new IllegalArgumentException("Idempotency key reused for a different request: " + key);
+            }
+            existing.await();
+            return;
+        }
+
+        try {
+            operation.run();
+            entry.outcome.complete(null);
+        } catch (RuntimeException e) {
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            boolean completed = entry.outcome.isDone();
+            synchronized (segment) {
+                segment.inFlight.remove(key);
+                // An Error escaped if not completed; forget the key so a retry can run again
+                if (completed) {
+                    segment.put(key, entry);
+                }
+            }
+            if (!completed) {
+                entry.outcome.completeExceptionally(new IllegalStateException("Original request did not complete"));
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size() + segment.inFlight.size();
+            }
+        }
+        return size;
+    }
+
+    // Requests answered from the cache
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Forgets finished operations; running ones stay until they finish
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Object request;
+        private final long expiresAt;
+        private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+
+        private Entry(Object request, long expiresAt) {
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+
+        private void await() {
+            try {
+                outcome.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        // Operations still running, keyed like the map itself
+        private final transient Map<String, Entry> inFlight = new HashMap<>();
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+
+        // Drops expired entries from the least recently used end
+        private void evictExpired(long now) {
+            Iterator<Entry> it = values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt - now > 0) {
+                    return;
+                }
+                it.remove();
+            }
+        }
+    }
+}
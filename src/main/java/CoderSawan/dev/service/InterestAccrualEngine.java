@@ -0,0 +1,235 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.persistence.WriteAheadLog;
+import CoderSawan.dev.repository.AccountRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// Month-end interest run over many accounts. Balances are copied into a
+// primitive column and interest is computed per chunk with fork-join (one
+// multiply per account, since the rate factor is the same for everyone).
+// Each chunk then posts its own credits as one write-ahead log group, so
+// chunks finishing together share an fsync. The wait for the fsync is a
+// ManagedBlocker, which lets the pool (the common pool included) bring in a
+// spare worker instead of losing parallelism while it waits.
+public class InterestAccrualEngine {
+
+    public enum Method {
+        SIMPLE,
+        // Compounded monthly
+        COMPOUND
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private volatile WriteAheadLog writeAheadLog;
+
+    public InterestAccrualEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public InterestAccrualEngine(ForkJoinPool pool, int chunkSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    // Same rules as TransactionService.calculateInterest
+    public static double rateFactor(Method method, double ratePercent, int months) {
+        if (method == null) {
+            throw new IllegalArgumentException("Method cannot be null");
+        }
+        if (ratePercent < 0 || ratePercent > 100) {
+            throw new IllegalArgumentException("Interest rate must be between 0 and 100");
+        }
+        if (months <= 0) {
+            throw new IllegalArgumentException("Months must be positive");
+        }
+        double rate = ratePercent / 100.0;
+        if (method == Method.SIMPLE) {
+            return rate * months / 12.0;
+        }
+        return Math.pow(1 + rate / 12.0, months) - 1;
+    }
+
+    public Summary accrue(AccountRegistry registry, Method method, double ratePercent, int months) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Registry cannot be null");
+        }
+        List<BankAccount> accounts = new ArrayList<>(registry.size());
+        registry.forEach(accounts::add);
+        return accrue(accounts, method, ratePercent, months);
+    }
+
+    // Credits interest to every active account with a positive balance.
+    // Interest is rounded to the nearest cent; amounts that round to zero are skipped.
+    public Summary accrue(List<BankAccount> accounts, Method method, double ratePercent, int months) {
+        if (accounts == null) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+        double factor = rateFactor(method, ratePercent, months);
+        BankAccount[] rows = accounts.toArray(new BankAccount[0]);
+        long[] balances = new long[rows.length];
+        long[] interest = new long[rows.length];
+        Summary summary = new Summary(rows.length);
+
+        pool.invoke(new Chunk(rows, balances, interest, factor, summary, 0, rows.length));
+        return summary;
+    }
+
+    private void post(BankAccount[] rows, long[] interest, int from, int to, Summary summary) {
+        WriteAheadLog log = writeAheadLog;
+        if (log != null) {
+            log.beginGroup();
+        }
+        long credited = 0;
+        long total = 0;
+        try {
+            for (int i = from; i < to; i++) {
+                if (interest[i] <= 0) {
+                    continue;
+                }
+                try {
+                    rows[i].creditInterest(interest[i]);
+                    credited++;
+                    total += interest[i];
+                } catch (IllegalStateException e) {
+                    // Closed since the balance was read
+                }
+            }
+        } finally {
+            summary.credited.add(credited);
+            summary.totalInterest.add(total);
+            if (log != null) {
+                endGroup(log);
+            }
+        }
+    }
+
+    private static void endGroup(WriteAheadLog log) {
+        GroupEnd end = new GroupEnd(log);
+        try {
+            ForkJoinPool.managedBlock(end);
+        } catch (InterruptedException e) {
+            // GroupEnd never throws it, but the group must end on this thread regardless
+            Thread.currentThread().interrupt();
+            if (!end.isReleasable()) {
+                log.endGroup();
+            }
+        }
+    }
+
+    // Ends a write-ahead log group, which waits until it is durable
+    private static final class GroupEnd implements ForkJoinPool.ManagedBlocker {
+        private final WriteAheadLog log;
+        private boolean done;
+
+        private GroupEnd(WriteAheadLog log) {
+            this.log = log;
+        }
+
+        @Override
+        public boolean block() {
+            log.endGroup();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    // Log each chunk's credits as one frame
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BankAccount[] rows;
+        private final long[] balances;
+        private final long[] interest;
+        private final double factor;
+        private final Summary summary;
+        private final int from;
+        private final int to;
+
+        private Chunk(BankAccount[] rows, long[] balances, long[] interest, double factor, Summary summary,
+                      int from, int to) {
+            this.rows = rows;
+            this.balances = balances;
+            this.interest = interest;
+            this.factor = factor;
+            this.summary = summary;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunk(rows, balances, interest, factor, summary, from, mid),
+                        new Chunk(rows, balances, interest, factor, summary, mid, to));
+                return;
+            }
+
+            // Gather: inactive accounts earn nothing
+            for (int i = from; i < to; i++) {
+                BankAccount account = rows[i];
+                balances[i] = account != null && account.isActive() ? account.getBalanceMinor() : 0;
+            }
+            // Compute over the primitive column only
+            for (int i = from; i < to; i++) {
+                interest[i] = Math.round(balances[i] * factor);
+            }
+            post(rows, interest, from, to, summary);
+        }
+    }
+
+    public static final class Summary {
+        private final int accountsProcessed;
+        private final LongAdder credited = new LongAdder();
+        private final LongAdder totalInterest = new LongAdder();
+
+        private Summary(int accountsProcessed) {
+            this.accountsProcessed = accountsProcessed;
+        }
+
+        public int getAccountsProcessed() {
+            return accountsProcessed;
+        }
+
+        public long getAccountsCredited() {
+            return credited.sum();
+        }
+
+        public long getTotalInterestMinor() {
+            return totalInterest.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{" +
+                    "accountsProcessed=" + accountsProcessed +
+                    ", accountsCredited=" + getAccountsCredited() +
+                    ", totalInterestMinor=" + getTotalInterestMinor() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package CoderSawan.dev.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the FeePolicy in force. Rules are read from a properties file,
+// compiled once and published by swapping the reference, so transfers only
+// ever read one immutable snapshot: no lock, no parsing on the hot path.
+// watch() reloads the file whenever it changes; a file that fails to parse
+// or compile leaves the previous policy in place.
+public class PolicyEngine implements Closeable {
+
+    private final AtomicReference<FeePolicy> current = new AtomicReference<>(FeePolicy.DEFAULT);
+    private final Path config;
+    private volatile WatchService watchService;
+    private volatile Exception lastReloadError;
+
+    // Serves FeePolicy.DEFAULT until something is published
+    public PolicyEngine() {
+        this.config = null;
+    }
+
+    public PolicyEngine(Path config) throws IOException {
+        if (config == null) {
+            throw new IllegalArgumentException("Config path cannot be null");
+        }
+        this.config = config.toAbsolutePath();
+        reload();
+    }
+
+    public FeePolicy current() {
+        return current.get();
+    }
+
+    // Returns the policy it replaced
+    public FeePolicy publish(FeePolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy cannot be null");
+        }
+        return current.getAndSet(policy);
+    }
+
+    public FeePolicy reload() throws IOException {
+        if (config == null) {
+            throw new IllegalStateException("Policy engine has no config file");
+        }
+        Properties rules = new Properties();
+        try (Reader reader = Files.newBufferedReader(config, StandardCharsets.UTF_8)) {
+            rules.load(reader);
+        }
+        // Most likely caught mid-write; replacing the file by a rename avoids that
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("Policy file has no rules: " + config);
+        }
+        FeePolicy policy = FeePolicy.compile(rules);
+        current.set(policy);
+        return policy;
+    }
+
+    // Starts a daemon thread that reloads the config file when it changes
+    public synchronized void watch() throws IOException {
+        if (config == null) {
+            throw new IllegalStateException("Policy engine has no config file");
+        }
+        if (watchService != null) {
+            return;
+        }
+        WatchService service = config.getFileSystem().newWatchService();
+        config.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = service;
+        Thread thread = new Thread(() -> watchLoop(service), "policy-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watchLoop(WatchService service) {
+        Path name = config.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (name.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    try {
+                        reload();
+                        lastReloadError = null;
+                    } catch (IOException | RuntimeException e) {
+                        // Half-written or invalid file; keep serving the old policy
+                        lastReloadError = e;
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    // Error from the watcher's latest reload attempt, or null if it succeeded
+    public Exception getLastReloadError() {
+        return lastReloadError;
+    }
+
+    public Path getConfig() {
+        return config;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            watchService = null;
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.Money;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.persistence.WriteAheadLog;
+import CoderSawan.dev.repository.AccountKeys;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Optional execution mode where each account belongs to one shard and only
+// that shard's thread ever changes it, so no account monitor is taken.
+// Callers enqueue commands on the shard's bounded ring and get a future.
+// A transfer between shards is debited on the sender's shard and then handed
+// to the receiver's shard as a credit; if the credit cannot be applied the
+// amount and fee are handed back and reversed. With a write-ahead log the
+// debit is logged with a transfer intent and the credit or reversal resolves
+// it, so recovery can finish a transfer cut in half by a crash. A handoff is
+// made only once the frame before it is durable.
+//
+// Accounts driven by a sequencer must not be mutated directly at the same
+// time. Callbacks attached to the futures without an executor run on the
+// shard thread, so they should not block.
+public class ShardedSequencer implements Closeable {
+
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAW = 1;
+    private static final int TRANSFER = 2;
+    private static final int CREDIT = 3;
+    private static final int REFUND = 4;
+
+    // Commands applied per WAL group
+    private static final int DRAIN_BATCH = 256;
+    private static final int IDLE_SPINS = 1000;
+    // Upper bound on a sleep, in case a wake-up is ever missed anyway
+    private static final long PARK_NANOS = 1_000_000;
+
+    private final TransactionService service;
+    private final Shard[] shards;
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean closed;
+
+    public ShardedSequencer(TransactionService service, int shardCount, int ringCapacity) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.service = service;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    public CompletableFuture<Void> deposit(BankAccount account, double amount) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        return submit(new Command(DEPOSIT, account, null, amount));
+    }
+
+    public CompletableFuture<Void> withdraw(BankAccount account, double amount) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        return submit(new Command(WITHDRAW, account, null, amount));
+    }
+
+    // Same rules, fee and rejection reasons as TransactionService.transfer
+    public CompletableFuture<Void> transfer(BankAccount fromAccount, BankAccount toAccount, double amount) {
+        // The fee comes from the policy the request is validated against
+        FeePolicy policy = service.getPolicyEngine().current();
+        RuntimeException invalid = service.validateRequest(fromAccount, toAccount, amount, policy);
+        if (invalid != null) {
+            return CompletableFuture.failedFuture(invalid);
+        }
+        // Screened on the caller's thread, so scoring never holds up a shard
+        TransactionResult screened = service.screen(service.getFraudScorer(), fromAccount, toAccount, amount);
+        if (screened != TransactionResult.SUCCESS) {
+            return CompletableFuture.failedFuture(TransactionService.transferFailure(screened));
+        }
+        return submit(new Command(TRANSFER, fromAccount, toAccount, amount, policy.fee(fromAccount, amount), 0, 0,
+                new CompletableFuture<>()));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(BankAccount account) {
+        long key = AccountKeys.tryEncode(account.getAccountNumber());
+        long hash = key != AccountKeys.INVALID ? key : account.getAccountNumber().hashCode();
+        hash *= 0x9e3779b97f4a7c15L;
+        return (int) ((hash >>> 32) % shards.length);
+    }
+
+    // Stops accepting commands, waits for the ones already accepted
+    // (including pending handoffs), then stops the shard threads
+    @Override
+    public void close() {
+        closed = true;
+        while (inFlight.get() > 0) {
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (true) {
+                try {
+                    shard.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> submit(Command command) {
+        if (closed) {
+            throw new IllegalStateException("Sequencer is closed");
+        }
+        inFlight.incrementAndGet();
+        if (closed) {
+            finish(command, new IllegalStateException("Sequencer is closed"));
+            return command.result;
+        }
+        shards[shardOf(command.account)].enqueue(command);
+        return command.result;
+    }
+
+    private void finish(Command command, Throwable failure) {
+        inFlight.decrementAndGet();
+        if (failure == null) {
+            command.result.complete(null);
+        } else {
+            command.result.completeExceptionally(failure);
+        }
+    }
+
+    private static final class Command {
+        private final int kind;
+        private final BankAccount account;
+        // Receiver of a transfer; sender for credits and refunds
+        private final BankAccount counterparty;
+        private final double amount;
+        // Fee the sender pays (set at submit) and when the amount was counted
+        // against its velocity limits, carried by credits in case they are
+        // refunded; a refund gives back amount and fee
+        private final double fee;
+        private final long acquiredAt;
+        // Sequence of the sender's withdrawal, naming the transfer's intent in the log
+        private final long intent;
+        private final CompletableFuture<Void> result;
+
+        private Command(int kind, BankAccount account, BankAccount counterparty, double amount) {
+            this(kind, account, counterparty, amount, 0, 0, 0, new CompletableFuture<>());
+        }
+
+        private Command(int kind, BankAccount account, BankAccount counterparty, double amount, double fee,
+                        long acquiredAt, long intent, CompletableFuture<Void> result) {
+            this.kind = kind;
+            this.account = account;
+            this.counterparty = counterparty;
+            this.amount = amount;
+            this.fee = fee;
+            this.acquiredAt = acquiredAt;
+            this.intent = intent;
+            this.result = result;
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final int index;
+        private final CommandRing<Command> ring;
+        // Credits and refunds from other shards. Unbounded so two shards
+        // handing off to each other can never block on each other's full
+        // ring; its size is bounded by the commands already accepted.
+        private final ConcurrentLinkedQueue<Command> handoffs = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private final Command[] batch = new Command[DRAIN_BATCH];
+        private final Throwable[] failures = new Throwable[DRAIN_BATCH];
+        // Credit or refund each command continues as on another shard
+        private final Command[] forwards = new Command[DRAIN_BATCH];
+        private volatile boolean sleeping;
+        private volatile boolean running = true;
+
+        private Shard(int index, int ringCapacity) {
+            this.index = index;
+            this.ring = new CommandRing<>(ringCapacity);
+            this.thread = new Thread(this, "sequencer-shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        // Producers wait for space rather than fail, which pushes back on callers
+        private void enqueue(Command command) {
+            int spins = 0;
+            while (!ring.offer(command)) {
+                if (++spins < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            wake();
+        }
+
+        private void handoff(Command command) {
+            handoffs.add(command);
+            wake();
+        }
+
+        private void wake() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                int count = drain();
+                if (count > 0) {
+                    apply(count);
+                    idle = 0;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    if (ring.isEmpty() && handoffs.isEmpty() && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private int drain() {
+            int count = 0;
+            Command command;
+            while (count < DRAIN_BATCH && (command = handoffs.poll()) != null) {
+                batch[count++] = command;
+            }
+            while (count < DRAIN_BATCH && (command = ring.poll()) != null) {
+                batch[count++] = command;
+            }
+            return count;
+        }
+
+        // One WAL group per drained batch; futures complete once it is durable.
+        // Whatever a command throws, Errors included, fails only its own
+        // future: the shard thread must survive, or every command queued on it
+        // would wait forever.
+        private void apply(int count) {
+            WriteAheadLog log = service.getWriteAheadLog();
+            if (log != null) {
+                log.beginGroup();
+            }
+            Throwable groupFailure = null;
+            try {
+                for (int i = 0; i < count; i++) {
+                    failures[i] = null;
+                    forwards[i] = null;
+                    try {
+                        forwards[i] = execute(batch[i], log);
+                    } catch (Throwable e) {
+                        failures[i] = e;
+                    }
+                }
+            } finally {
+                if (log != null) {
+                    try {
+                        log.endGroup();
+                    } catch (Throwable e) {
+                        // Not durable, so none of the batch may report success
+                        groupFailure = e;
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if (forwards[i] != null && groupFailure == null) {
+                    // The intent is durable, so the other side may now be logged
+                    shards[shardOf(forwards[i].account)].handoff(forwards[i]);
+                } else {
+                    finish(batch[i], failures[i] != null ? failures[i] : groupFailure);
+                }
+                batch[i] = null;
+                failures[i] = null;
+                forwards[i] = null;
+            }
+        }
+
+        // Returns the command this one continues as on another shard, or null
+        private Command execute(Command command, WriteAheadLog log) {
+            switch (command.kind) {
+                case DEPOSIT:
+                    service.deposit(command.account, command.amount);
+                    return null;
+                case WITHDRAW:
+                    service.withdraw(command.account, command.amount);
+                    return null;
+                case TRANSFER:
+                    return transfer(command, log);
+                case CREDIT:
+                    return credit(command, log);
+                case REFUND:
+                    // Not a deposit: the sender may have been closed meanwhile
+                    command.account.reverseDebit(Money.toMinor(command.amount) + Money.toMinor(command.fee));
+                    if (log != null) {
+                        log.resolveTransferIntent(command.account, command.intent);
+                    }
+                    throw TransactionService.transferFailure(service.rejected(TransactionResult.INACTIVE_ACCOUNT));
+                default:
+                    throw new IllegalStateException("Unknown command: " + command.kind);
+            }
+        }
+
+        private Command transfer(Command command, WriteAheadLog log) {
+            BankAccount from = command.account;
+            BankAccount to = command.counterparty;
+            if (shards[shardOf(to)] == this) {
+                // This thread owns both accounts, which stands in for their monitors
+                succeedOrThrow(service.doTransfer(from, to, command.amount, command.fee));
+                transferred(from, to, command.amount);
+                return null;
+            }
+
+            if (!from.isActive()) {
+                throw TransactionService.transferFailure(service.rejected(TransactionResult.INACTIVE_ACCOUNT));
+            }
+            long acquiredAt = service.velocityNow();
+            // Only this thread changes the sender, so its withdrawal gets the next sequence
+            long intent = from.getJournal().getNextSequence();
+            succeedOrThrow(service.debitWithFee(from, command.amount, command.fee, acquiredAt));
+            if (log != null) {
+                long amountMinor = Money.toMinor(command.amount);
+                log.logTransferIntent(from, intent, to, amountMinor, amountMinor + Money.toMinor(command.fee));
+            }
+            return new Command(CREDIT, to, from, command.amount, command.fee, acquiredAt, intent, command.result);
+        }
+
+        private void transferred(BankAccount from, BankAccount to, double amount) {
+            FraudScorer scorer = service.getFraudScorer();
+            if (scorer != null) {
+                scorer.afterTransfer(from, to, amount);
+            }
+        }
+
+        private void succeedOrThrow(TransactionResult result) {
+            if (result != TransactionResult.SUCCESS) {
+                throw TransactionService.transferFailure(result);
+            }
+        }
+
+        private Command credit(Command command, WriteAheadLog log) {
+            BankAccount to = command.account;
+            BankAccount from = command.counterparty;
+            if (to.isActive()) {
+                try {
+                    to.deposit(command.amount);
+                    if (log != null) {
+                        log.resolveTransferIntent(from, command.intent);
+                    }
+                    transferred(from, to, command.amount);
+                    return null;
+                } catch (IllegalStateException e) {
+                    // Closed from outside the sequencer; refund below
+                }
+            }
+            service.releaseVelocity(from, command.amount, command.acquiredAt);
+            return new Command(REFUND, from, to, command.amount, command.fee, 0, command.intent, command.result);
+        }
+    }
+}
@@ -1,41 +1,610 @@
 package CoderSawan.dev.service;
 
 
+import CoderSawan.dev.metrics.Operation;
+import CoderSawan.dev.metrics.RejectionReason;
+import CoderSawan.dev.metrics.TransactionMetrics;
+import CoderSawan.dev.model.AccountTier;
 import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.Money;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.persistence.WriteAheadLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class TransactionService {
 
-    private static final double TRANSACTION_FEE = 5.0;
-    private static final double MAX_TRANSFER_AMOUNT = 50000.0;
+    // Upper bound on monitors held at once by a batch; larger batches are
+    // applied in consecutive lock groups
+    private static final int MAX_ACCOUNTS_PER_LOCK_GROUP = 256;
+
+    // Only used when two distinct accounts compare equal and hash the same
+    private static final Object TIE_LOCK = new Object();
+
+    private volatile WriteAheadLog writeAheadLog;
+    private volatile TransactionMetrics metrics;
+    private volatile IdempotencyCache idempotencyCache = new IdempotencyCache();
+    private volatile VelocityLimiter velocityLimiter;
+    private volatile PolicyEngine policyEngine = new PolicyEngine();
+    private volatile FraudScorer fraudScorer;
 
     public void transfer(BankAccount fromAccount, BankAccount toAccount, double amount) {
+        FeePolicy policy = policyEngine.current();
+        TransactionResult result = tryTransfer(fromAccount, toAccount, amount, policy);
+        if (result != TransactionResult.SUCCESS) {
+            throw transferFailure(result, fromAccount, policy);
+        }
+    }
+
+    // Retries carrying the same key get the first attempt's outcome instead
+    // of moving the money again
+    public void transfer(BankAccount fromAccount, BankAccount toAccount, double amount, String idempotencyKey) {
+        idempotencyCache.execute(idempotencyKey, new TransferRequest(fromAccount, toAccount, amount),
+                () -> transfer(fromAccount, toAccount, amount));
+    }
+
+    // Deposits and withdrawals made here are timed and counted like
+    // transfers; calling the account directly skips the metrics
+    public void deposit(BankAccount account, double amount) {
+        TransactionMetrics m = metrics;
+        if (m == null) {
+            account.deposit(amount);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            account.deposit(amount);
+        } catch (IllegalStateException e) {
+            m.reject(RejectionReason.INACTIVE_ACCOUNT);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            m.reject(RejectionReason.INVALID_REQUEST);
+            throw e;
+        } finally {
+            m.record(Operation.DEPOSIT, System.nanoTime() - start);
+        }
+    }
+
+    public void withdraw(BankAccount account, double amount) {
+        TransactionMetrics m = metrics;
+        if (m == null) {
+            account.withdraw(amount);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            account.withdraw(amount);
+        } catch (IllegalStateException e) {
+            m.reject(RejectionReason.INACTIVE_ACCOUNT);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            // A valid amount can only be refused for the balance
+            m.reject(Money.toPositiveMinor(amount) > 0
+                    ? RejectionReason.INSUFFICIENT_FUNDS : RejectionReason.INVALID_REQUEST);
+            throw e;
+        } finally {
+            m.record(Operation.WITHDRAW, System.nanoTime() - start);
+        }
+    }
+
+    public TransactionResult tryWithdraw(BankAccount account, double amount) {
+        TransactionMetrics m = metrics;
+        if (m == null) {
+            return account.tryWithdraw(amount);
+        }
+        long start = System.nanoTime();
+        try {
+            TransactionResult result = account.tryWithdraw(amount);
+            return result == TransactionResult.SUCCESS ? result : rejected(result);
+        } finally {
+            m.record(Operation.WITHDRAW, System.nanoTime() - start);
+        }
+    }
+
+    // Same rules as transfer, but rejections come back as a result code, so
+    // a rejected transfer neither throws nor allocates
+    public TransactionResult tryTransfer(BankAccount fromAccount, BankAccount toAccount, double amount) {
+        return tryTransfer(fromAccount, toAccount, amount, policyEngine.current());
+    }
+
+    // One policy for the whole transfer, so the limit and the fee come from
+    // the same rules even if a reload lands in between
+    private TransactionResult tryTransfer(BankAccount fromAccount, BankAccount toAccount, double amount,
+                                          FeePolicy policy) {
+        TransactionMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        try {
+            return tryTransferUntimed(fromAccount, toAccount, amount, policy);
+        } finally {
+            if (m != null) {
+                m.record(Operation.TRANSFER, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private TransactionResult tryTransferUntimed(BankAccount fromAccount, BankAccount toAccount, double amount,
+                                                 FeePolicy policy) {
         // Validation
+        TransactionResult invalid = checkRequest(fromAccount, toAccount, amount, policy);
+        if (invalid != TransactionResult.SUCCESS) {
+            return invalid;
+        }
+
+        // Scored before any lock is taken, so a slow score never holds one
+        FraudScorer scorer = fraudScorer;
+        TransactionResult screened = screen(scorer, fromAccount, toAccount, amount);
+        if (screened != TransactionResult.SUCCESS) {
+            return screened;
+        }
+
+        // The debit, fee and credit are logged as one frame, made durable
+        // after the account locks are released
+        TransactionResult result;
+        WriteAheadLog log = writeAheadLog;
+        if (log != null) {
+            log.beginGroup();
+        }
+        try {
+            result = lockAndTransfer(fromAccount, toAccount, amount, policy.fee(fromAccount, amount));
+        } finally {
+            if (log != null) {
+                log.endGroup();
+            }
+        }
+        if (scorer != null && result == TransactionResult.SUCCESS) {
+            scorer.afterTransfer(fromAccount, toAccount, amount);
+        }
+        return result;
+    }
+
+    // Every transfer path (single, batch item, sequencer) goes through the
+    // scorer passed in, read once per transfer or batch
+    TransactionResult screen(FraudScorer scorer, BankAccount fromAccount, BankAccount toAccount, double amount) {
+        if (scorer == null) {
+            return TransactionResult.SUCCESS;
+        }
+        TransactionResult screened = scorer.screen(fromAccount, toAccount, amount);
+        return screened == TransactionResult.SUCCESS ? screened : rejected(screened);
+    }
+
+    private TransactionResult lockAndTransfer(BankAccount fromAccount, BankAccount toAccount, double amount, double fee) {
+        // Lock only the two accounts involved, always in the same order, so
+        // transfers on unrelated accounts run in parallel and never deadlock
+        int order = compareLockOrder(fromAccount, toAccount);
+        BankAccount first = order < 0 ? fromAccount : toAccount;
+        BankAccount second = order < 0 ? toAccount : fromAccount;
+
+        if (order == 0) {
+            synchronized (TIE_LOCK) {
+                synchronized (first) {
+                    synchronized (second) {
+                        return doTransfer(fromAccount, toAccount, amount, fee);
+                    }
+                }
+            }
+        } else {
+            synchronized (first) {
+                synchronized (second) {
+                    return doTransfer(fromAccount, toAccount, amount, fee);
+                }
+            }
+        }
+    }
+
+    // Caller must hold the monitors of both accounts (or, in ShardedSequencer,
+    // own both shards), which keeps them from being closed mid-transfer; the
+    // balances themselves are updated with CAS. fee is what the policy the
+    // request was validated against charges.
+    TransactionResult doTransfer(BankAccount fromAccount, BankAccount toAccount, double amount, double fee) {
+        if (!fromAccount.isActive() || !toAccount.isActive()) {
+            return rejected(TransactionResult.INACTIVE_ACCOUNT);
+        }
+
+        TransactionResult debited = debitWithFee(fromAccount, amount, fee);
+        if (debited == TransactionResult.SUCCESS) {
+            toAccount.deposit(amount);
+        }
+        return debited;
+    }
+
+    // The sending half of a transfer; amount and fee are debited in one atomic
+    // step, after the amount is counted against the velocity limits
+    TransactionResult debitWithFee(BankAccount fromAccount, double amount, double fee) {
+        return debitWithFee(fromAccount, amount, fee, velocityNow());
+    }
+
+    // now is the time the amount is counted at; a later releaseVelocity must
+    // pass the same time so the count comes out of the same bucket
+    TransactionResult debitWithFee(BankAccount fromAccount, double amount, double fee, long now) {
+        VelocityLimiter limiter = velocityLimiter;
+        if (limiter == null) {
+            TransactionResult result = fromAccount.tryWithdraw(amount, fee);
+            return result == TransactionResult.SUCCESS ? result : rejected(result);
+        }
+
+        long amountMinor = Money.toMinor(amount);
+        if (!limiter.tryAcquire(fromAccount, amountMinor, now)) {
+            return rejected(TransactionResult.VELOCITY_LIMIT_EXCEEDED);
+        }
+        TransactionResult result = fromAccount.tryWithdraw(amount, fee);
+        if (result != TransactionResult.SUCCESS) {
+            limiter.release(fromAccount, amountMinor, now);
+            return rejected(result);
+        }
+        return result;
+    }
+
+    long velocityNow() {
+        VelocityLimiter limiter = velocityLimiter;
+        return limiter != null ? limiter.now() : 0;
+    }
+
+    // Undoes debitWithFee's velocity count for a transfer refunded later;
+    // acquiredAt is the time debitWithFee counted it at
+    void releaseVelocity(BankAccount fromAccount, double amount, long acquiredAt) {
+        VelocityLimiter limiter = velocityLimiter;
+        if (limiter != null) {
+            limiter.release(fromAccount, Money.toMinor(amount), acquiredAt);
+        }
+    }
+
+    // Checks run before any lock is taken, in the order transfer has always
+    // made them. The status check is repeated under the locks.
+    TransactionResult checkRequest(BankAccount fromAccount, BankAccount toAccount, double amount, FeePolicy policy) {
         if (fromAccount == null || toAccount == null) {
-            throw new IllegalArgumentException("Accounts cannot be null");
+            return rejected(TransactionResult.INVALID_ACCOUNT);
         }
         if (fromAccount == toAccount) {
-            throw new IllegalArgumentException("Cannot transfer to same account");
+            return rejected(TransactionResult.SAME_ACCOUNT);
         }
         if (!fromAccount.isActive() || !toAccount.isActive()) {
-            throw new IllegalStateException("Both accounts must be active");
+            return rejected(TransactionResult.INACTIVE_ACCOUNT);
+        }
+        if (!(amount > 0)) {
+            return rejected(TransactionResult.INVALID_AMOUNT);
+        }
+        if (amount > policy.maxTransfer(fromAccount)) {
+            return rejected(TransactionResult.LIMIT_EXCEEDED);
+        }
+        return TransactionResult.SUCCESS;
+    }
+
+    // Returns null when the request passes checkRequest
+    RuntimeException validateRequest(BankAccount fromAccount, BankAccount toAccount, double amount,
+                                     FeePolicy policy) {
+        TransactionResult result = checkRequest(fromAccount, toAccount, amount, policy);
+        return result == TransactionResult.SUCCESS ? null : transferFailure(result, fromAccount, policy);
+    }
+
+    // Counts the rejection and hands the code back
+    TransactionResult rejected(TransactionResult result) {
+        TransactionMetrics m = metrics;
+        if (m != null) {
+            m.reject(reasonOf(result));
+        }
+        return result;
+    }
+
+    private static RejectionReason reasonOf(TransactionResult result) {
+        switch (result) {
+            case INACTIVE_ACCOUNT:
+                return RejectionReason.INACTIVE_ACCOUNT;
+            case LIMIT_EXCEEDED:
+                return RejectionReason.LIMIT_EXCEEDED;
+            case INSUFFICIENT_FUNDS:
+                return RejectionReason.INSUFFICIENT_FUNDS;
+            case VELOCITY_LIMIT_EXCEEDED:
+                return RejectionReason.VELOCITY_LIMIT_EXCEEDED;
+            case FRAUD_SUSPECTED:
+                return RejectionReason.FRAUD_SUSPECTED;
+            default:
+                return RejectionReason.INVALID_REQUEST;
+        }
+    }
+
+    // Like transferFailure, but names the limit that was exceeded
+    private static RuntimeException transferFailure(TransactionResult result, BankAccount fromAccount,
+                                                    FeePolicy policy) {
+        if (result == TransactionResult.LIMIT_EXCEEDED) {
+            return new IllegalArgumentException("Transfer amount exceeds maximum limit: "
+                    + policy.maxTransfer(fromAccount));
+        }
+        return transferFailure(result);
+    }
+
+    // The exception transfer has always thrown for each rejection
+    static RuntimeException transferFailure(TransactionResult result) {
+        switch (result) {
+            case INVALID_ACCOUNT:
+                return new IllegalArgumentException("Accounts cannot be null");
+            case SAME_ACCOUNT:
+                return new IllegalArgumentException("Cannot transfer to same account");
+            case INVALID_AMOUNT:
+                return new IllegalArgumentException("Transfer amount must be positive");
+            case LIMIT_EXCEEDED:
+                return new IllegalArgumentException("Transfer amount exceeds the account's maximum limit");
+            case INACTIVE_ACCOUNT:
+                return new IllegalStateException("Both accounts must be active");
+            case INSUFFICIENT_FUNDS:
+                return new IllegalArgumentException("Insufficient funds including transaction fee");
+            case VELOCITY_LIMIT_EXCEEDED:
+                return new IllegalStateException("Transfer exceeds the hourly or daily velocity limit");
+            case FRAUD_SUSPECTED:
+                return new IllegalStateException("Transfer held for suspected fraud");
+            default:
+                throw new IllegalArgumentException("Not a rejection: " + result);
+        }
+    }
+
+    // Applies many transfers, validating each item on its own and reporting a
+    // result per item. Accounts are locked once per lock group rather than once
+    // per item, and each account's balance moves once with the net of its items.
+    public BatchTransferResult transferBatch(List<TransferRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Requests cannot be null");
         }
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be positive");
+
+        TransactionMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        try {
+            return transferBatchUntimed(requests);
+        } finally {
+            if (m != null) {
+                m.record(Operation.TRANSFER_BATCH, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private BatchTransferResult transferBatchUntimed(List<TransferRequest> requests) {
+        BatchTransferResult result = new BatchTransferResult(requests.size());
+        FeePolicy policy = policyEngine.current();
+        FraudScorer scorer = fraudScorer;
+        List<Integer> group = new ArrayList<>();
+        Map<BankAccount, Boolean> groupAccounts = new IdentityHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            RuntimeException invalid = request == null
+                    ? nullRequest()
+                    : validateRequest(request.getFromAccount(), request.getToAccount(), request.getAmount(), policy);
+            if (invalid == null) {
+                TransactionResult screened = screen(scorer, request.getFromAccount(), request.getToAccount(),
+                        request.getAmount());
+                if (screened != TransactionResult.SUCCESS) {
+                    invalid = transferFailure(screened);
+                }
+            }
+            if (invalid != null) {
+                result.fail(i, invalid);
+                continue;
+            }
+
+            int added = (groupAccounts.containsKey(request.getFromAccount()) ? 0 : 1)
+                    + (groupAccounts.containsKey(request.getToAccount()) ? 0 : 1);
+            if (groupAccounts.size() + added > MAX_ACCOUNTS_PER_LOCK_GROUP) {
+                applyGroup(requests, group, groupAccounts, result, policy);
+                group.clear();
+                groupAccounts.clear();
+            }
+            group.add(i);
+            groupAccounts.put(request.getFromAccount(), Boolean.TRUE);
+            groupAccounts.put(request.getToAccount(), Boolean.TRUE);
+        }
+        if (!group.isEmpty()) {
+            applyGroup(requests, group, groupAccounts, result, policy);
+        }
+        if (scorer != null) {
+            for (int i = 0; i < requests.size(); i++) {
+                if (result.isApplied(i)) {
+                    TransferRequest request = requests.get(i);
+                    scorer.afterTransfer(request.getFromAccount(), request.getToAccount(), request.getAmount());
+                }
+            }
+        }
+        return result;
+    }
+
+    private void applyGroup(List<TransferRequest> requests, List<Integer> group,
+                            Map<BankAccount, Boolean> groupAccounts, BatchTransferResult result, FeePolicy policy) {
+        BankAccount[] accounts = groupAccounts.keySet().toArray(new BankAccount[0]);
+        Arrays.sort(accounts, TransactionService::compareLockOrder);
+
+        boolean tie = false;
+        for (int i = 1; i < accounts.length; i++) {
+            if (compareLockOrder(accounts[i - 1], accounts[i]) == 0) {
+                tie = true;
+                break;
+            }
+        }
+
+        Runnable apply = () -> lockAll(accounts, 0, () -> applyLockedGroup(requests, group, result, policy));
+        WriteAheadLog log = writeAheadLog;
+        if (log != null) {
+            log.beginGroup();
+        }
+        try {
+            if (tie) {
+                synchronized (TIE_LOCK) {
+                    apply.run();
+                }
+            } else {
+                apply.run();
+            }
+        } finally {
+            if (log != null) {
+                log.endGroup();
+            }
+        }
+    }
+
+    private static void lockAll(BankAccount[] accounts, int index, Runnable action) {
+        if (index == accounts.length) {
+            action.run();
+            return;
+        }
+        synchronized (accounts[index]) {
+            lockAll(accounts, index + 1, action);
+        }
+    }
+
+    // Caller must hold the monitors of every account in the group
+    private void applyLockedGroup(List<TransferRequest> requests, List<Integer> group, BatchTransferResult result,
+                                  FeePolicy policy) {
+        Map<BankAccount, Posting> postings = new IdentityHashMap<>();
+        VelocityLimiter limiter = velocityLimiter;
+        long now = limiter != null ? limiter.now() : 0;
+        List<Integer> counted = new ArrayList<>();
+
+        // Decide every item against projected balances, in submission order
+        for (int index : group) {
+            TransferRequest request = requests.get(index);
+            BankAccount from = request.getFromAccount();
+            BankAccount to = request.getToAccount();
+            if (!from.isActive() || !to.isActive()) {
+                result.fail(index, transferFailure(rejected(TransactionResult.INACTIVE_ACCOUNT)));
+                continue;
+            }
+
+            long amountMinor = Money.toPositiveMinor(request.getAmount());
+            if (amountMinor <= 0) {
+                // Rounds to zero cents; tryTransfer's withdrawal rejects it the same way
+                result.fail(index, transferFailure(rejected(TransactionResult.INVALID_AMOUNT)));
+                continue;
+            }
+            long feeMinor = policy.feeMinor(from, amountMinor);
+            Posting debit = postings.computeIfAbsent(from, Posting::new);
+            if (debit.projected < amountMinor + feeMinor) {
+                result.fail(index, transferFailure(rejected(TransactionResult.INSUFFICIENT_FUNDS)));
+                continue;
+            }
+            if (limiter != null) {
+                if (!limiter.tryAcquire(from, amountMinor, now)) {
+                    result.fail(index, transferFailure(rejected(TransactionResult.VELOCITY_LIMIT_EXCEEDED)));
+                    continue;
+                }
+                counted.add(index);
+            }
+            debit.add(TransactionType.WITHDRAWAL, -amountMinor);
+            debit.add(TransactionType.FEE, -feeMinor);
+            postings.computeIfAbsent(to, Posting::new).add(TransactionType.DEPOSIT, amountMinor);
+        }
+
+        // Net debits are reserved first: a concurrent direct withdrawal may
+        // have spent the funds since they were projected, in which case the
+        // reservations are cancelled and the group goes item by item. Nothing
+        // is journaled (or logged) until every debit has been reserved.
+        List<Posting> reserved = new ArrayList<>();
+        for (Posting posting : postings.values()) {
+            if (posting.net < 0) {
+                if (!posting.account.reserveNetted(posting.net)) {
+                    for (Posting undo : reserved) {
+                        undo.account.cancelNetted(undo.net);
+                    }
+                    // Item by item counts each transfer again
+                    for (int index : counted) {
+                        TransferRequest request = requests.get(index);
+                        limiter.release(request.getFromAccount(), Money.toMinor(request.getAmount()), now);
+                    }
+                    applyItemByItem(requests, group, result, policy);
+                    return;
+                }
+                reserved.add(posting);
+            }
+        }
+        // From here on only a listener (the write-ahead log, say) can fail.
+        // Every account is posted regardless, so a failure never leaves the
+        // group half-applied, and the first one is rethrown afterwards.
+        RuntimeException failure = null;
+        for (Posting posting : reserved) {
+            try {
+                posting.account.commitNetted(posting.types, posting.amounts, posting.count);
+            } catch (RuntimeException e) {
+                failure = firstFailure(failure, e);
+            }
+        }
+        for (Posting posting : postings.values()) {
+            if (posting.net >= 0) {
+                try {
+                    posting.account.applyNetted(posting.net, posting.types, posting.amounts, posting.count);
+                } catch (RuntimeException e) {
+                    failure = firstFailure(failure, e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException firstFailure(RuntimeException first, RuntimeException next) {
+        if (first == null) {
+            return next;
         }
-        if (amount > MAX_TRANSFER_AMOUNT) {
-            throw new IllegalArgumentException("Transfer amount exceeds maximum limit: " + MAX_TRANSFER_AMOUNT);
+        first.addSuppressed(next);
+        return first;
+    }
+
+    private void applyItemByItem(List<TransferRequest> requests, List<Integer> group, BatchTransferResult result,
+                                 FeePolicy policy) {
+        for (int index : group) {
+            TransferRequest request = requests.get(index);
+            BankAccount from = request.getFromAccount();
+            TransactionResult outcome = doTransfer(from, request.getToAccount(), request.getAmount(),
+                    policy.fee(from, request.getAmount()));
+            if (outcome == TransactionResult.SUCCESS) {
+                result.clear(index);
+            } else {
+                result.fail(index, transferFailure(outcome));
+            }
         }
+    }
+
+    private RuntimeException nullRequest() {
+        rejected(TransactionResult.INVALID_ACCOUNT);
+        return new IllegalArgumentException("Transfer request cannot be null");
+    }
 
-        double totalDeduction = amount + TRANSACTION_FEE;
+    // Pending journal entries and net balance change of one account in a lock group
+    private static final class Posting {
+        private final BankAccount account;
+        private long projected;
+        private long net;
+        private TransactionType[] types = new TransactionType[4];
+        private long[] amounts = new long[4];
+        private int count;
 
-        if (fromAccount.getBalance() < totalDeduction) {
-            throw new IllegalArgumentException("Insufficient funds including transaction fee");
+        private Posting(BankAccount account) {
+            this.account = account;
+            this.projected = account.getBalanceMinor();
         }
 
-        // Perform transfer
-        fromAccount.withdraw(amount);
-        fromAccount.withdraw(TRANSACTION_FEE); // Deduct fee
-        toAccount.deposit(amount);
+        private void add(TransactionType type, long signedAmount) {
+            if (signedAmount == 0) {
+                return;
+            }
+            if (count == types.length) {
+                types = Arrays.copyOf(types, count * 2);
+                amounts = Arrays.copyOf(amounts, count * 2);
+            }
+            types[count] = type;
+            amounts[count] = Math.abs(signedAmount);
+            count++;
+            projected += signedAmount;
+            net += signedAmount;
+        }
+    }
+
+    private static int compareLockOrder(BankAccount a, BankAccount b) {
+        int order = a.getAccountNumber().compareTo(b.getAccountNumber());
+        if (order != 0) {
+            return order;
+        }
+        return Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
     }
 
     public double calculateInterest(BankAccount account, double ratePercent, int months) {
@@ -49,18 +618,86 @@ public class TransactionService {
             throw new IllegalArgumentException("Months must be positive");
         }
 
+        TransactionMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+
         double principal = account.getBalance();
         double rate = ratePercent / 100.0;
         double time = months / 12.0;
+        double interest = principal * rate * time;
+
+        if (m != null) {
+            m.record(Operation.INTEREST, System.nanoTime() - start);
+        }
+        return interest;
+    }
+
+    // Null (the default) turns velocity checks off
+    public void setVelocityLimiter(VelocityLimiter velocityLimiter) {
+        this.velocityLimiter = velocityLimiter;
+    }
+
+    public VelocityLimiter getVelocityLimiter() {
+        return velocityLimiter;
+    }
+
+    // Accounts must also be attached to the log; the service only groups a
+    // transfer's records so they are recovered together
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    public void setMetrics(TransactionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public TransactionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setIdempotencyCache(IdempotencyCache idempotencyCache) {
+        if (idempotencyCache == null) {
+            throw new IllegalArgumentException("Idempotency cache cannot be null");
+        }
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
+    // Null (the default) turns fraud scoring off. Only single transfers are
+    // scored; batches and the sharded sequencer bypass it.
+    public void setFraudScorer(FraudScorer fraudScorer) {
+        this.fraudScorer = fraudScorer;
+    }
+
+    public FraudScorer getFraudScorer() {
+        return fraudScorer;
+    }
+
+    // Policy swaps made through the engine apply to the next transfer
+    public void setPolicyEngine(PolicyEngine policyEngine) {
+        if (policyEngine == null) {
+            throw new IllegalArgumentException("Policy engine cannot be null");
+        }
+        this.policyEngine = policyEngine;
+    }
 
-        return principal * rate * time;
+    public PolicyEngine getPolicyEngine() {
+        return policyEngine;
     }
 
+    // Fee and limit for a standard account of a regular holder, lowest band
     public double getTransactionFee() {
-        return TRANSACTION_FEE;
+        return policyEngine.current().getFee(AccountTier.STANDARD, false, 0);
     }
 
     public double getMaxTransferAmount() {
-        return MAX_TRANSFER_AMOUNT;
+        return policyEngine.current().getMaxTransfer(AccountTier.STANDARD, false);
     }
-}
\ No newline at end of file
+}
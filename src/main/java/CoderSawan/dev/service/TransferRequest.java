@@ -0,0 +1,50 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+
+import java.util.Objects;
+
+public class TransferRequest {
+    private final BankAccount fromAccount;
+    private final BankAccount toAccount;
+    private final double amount;
+
+    public TransferRequest(BankAccount fromAccount, BankAccount toAccount, double amount) {
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+    }
+
+    // Getters
+    public BankAccount getFromAccount() {
+        return fromAccount;
+    }
+
+    public BankAccount getToAccount() {
+        return toAccount;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    // Accounts compare by identity, as everywhere else in the service
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransferRequest)) {
+            return false;
+        }
+        TransferRequest other = (TransferRequest) o;
+        return fromAccount == other.fromAccount
+                && toAccount == other.toAccount
+                && Double.compare(amount, other.amount) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(fromAccount), System.identityHashCode(toAccount), amount);
+    }
+}
@@ -0,0 +1,304 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.Money;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Hourly and daily cumulative limits on money sent, per account and per
+// account holder (by user id). Each window is a ring of time buckets; a
+// bucket is one long packing (epoch << 40 | amount in minor units) and is
+// updated with CAS, so a check takes no lock and never reads history:
+//
+//   - hourly: 60 one-minute buckets
+//   - daily: 96 fifteen-minute buckets
+//
+// The amount is added first and the window summed after, and the add is
+// undone if the sum is over the limit. Concurrent senders can therefore be
+// refused spuriously near the limit, but the limit is never overshot.
+//
+// Windows with nothing in the last day are dropped by a sweep that the first
+// transfer after each hour runs, so accounts and holders that stop sending
+// do not stay in memory. A sweep retires a window before checking it, and
+// a sender that finds its window retired after adding undoes the add and
+// starts again on a fresh one, so no amount is lost to an eviction.
+public class VelocityLimiter {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final long MINUTE = 60_000L;
+    private static final long SWEEP_INTERVAL = 60 * MINUTE;
+    private static final int AMOUNT_BITS = 40;
+    private static final long AMOUNT_MASK = (1L << AMOUNT_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << (64 - AMOUNT_BITS)) - 1;
+
+    private final long accountHourlyMinor;
+    private final long accountDailyMinor;
+    private final long userHourlyMinor;
+    private final long userDailyMinor;
+    private final LongSupplier clock;
+    private final Map<BankAccount, Windows> accounts = new ConcurrentHashMap<>();
+    private final Map<String, Windows> users = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    // Limits in major units; UNLIMITED (or any value above Money's range)
+    // turns a window off
+    public VelocityLimiter(double accountHourly, double accountDaily, double userHourly, double userDaily) {
+        this(toLimit(accountHourly), toLimit(accountDaily), toLimit(userHourly), toLimit(userDaily),
+                System::currentTimeMillis);
+    }
+
+    VelocityLimiter(long accountHourlyMinor, long accountDailyMinor, long userHourlyMinor, long userDailyMinor,
+                    LongSupplier clock) {
+        if (accountHourlyMinor < 0 || accountDailyMinor < 0 || userHourlyMinor < 0 || userDailyMinor < 0) {
+            throw new IllegalArgumentException("Velocity limits cannot be negative");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.accountHourlyMinor = accountHourlyMinor;
+        this.accountDailyMinor = accountDailyMinor;
+        this.userHourlyMinor = userHourlyMinor;
+        this.userDailyMinor = userDailyMinor;
+        this.clock = clock;
+    }
+
+    private static long toLimit(double amount) {
+        if (amount >= Money.toMajor(AMOUNT_MASK)) {
+            return UNLIMITED;
+        }
+        return Money.toMinor(amount);
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    // Records amountMinor sent from account at now, unless that would take
+    // the account or its holder over a limit
+    public boolean tryAcquire(BankAccount account, long amountMinor, long now) {
+        long sweepAt = nextSweep.get();
+        if (now >= sweepAt && nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL)) {
+            evictIdle(now);
+        }
+        while (true) {
+            Windows own = windowsOf(account);
+            if (!own.tryAdd(amountMinor, now, accountHourlyMinor, accountDailyMinor)) {
+                return false;
+            }
+            if (own.retired) {
+                own.remove(amountMinor, now);
+                continue;
+            }
+            Windows holder = windowsOf(account.getAccountHolder().getUserId());
+            if (!holder.tryAdd(amountMinor, now, userHourlyMinor, userDailyMinor)) {
+                own.remove(amountMinor, now);
+                return false;
+            }
+            if (holder.retired) {
+                holder.remove(amountMinor, now);
+                own.remove(amountMinor, now);
+                continue;
+            }
+            return true;
+        }
+    }
+
+    // Gives back an amount acquired at now whose transfer did not go through
+    public void release(BankAccount account, long amountMinor, long now) {
+        windowsOf(account).remove(amountMinor, now);
+        windowsOf(account.getAccountHolder().getUserId()).remove(amountMinor, now);
+    }
+
+    public long getHourlyTotal(BankAccount account) {
+        Windows windows = accounts.get(account);
+        return windows == null ? 0 : windows.hourly.sum(now());
+    }
+
+    public long getDailyTotal(BankAccount account) {
+        Windows windows = accounts.get(account);
+        return windows == null ? 0 : windows.daily.sum(now());
+    }
+
+    public long getUserHourlyTotal(String userId) {
+        Windows windows = users.get(userId);
+        return windows == null ? 0 : windows.hourly.sum(now());
+    }
+
+    public long getUserDailyTotal(String userId) {
+        Windows windows = users.get(userId);
+        return windows == null ? 0 : windows.daily.sum(now());
+    }
+
+    // Drops the windows with nothing sent in the day before now
+    void evictIdle(long now) {
+        evictIdle(accounts, now);
+        evictIdle(users, now);
+    }
+
+    private static <K> void evictIdle(Map<K, Windows> map, long now) {
+        for (Map.Entry<K, Windows> entry : map.entrySet()) {
+            Windows windows = entry.getValue();
+            // Retired before the check: a sender adding meanwhile either is
+            // seen by the check or sees the flag and moves to a new window
+            windows.retired = true;
+            if (windows.isIdle(now)) {
+                map.remove(entry.getKey(), windows);
+            } else {
+                windows.retired = false;
+            }
+        }
+    }
+
+    int size() {
+        return accounts.size() + users.size();
+    }
+
+    // Map reads are lock-free; only an account's first transfer inserts
+    private Windows windowsOf(BankAccount account) {
+        Windows windows = accounts.get(account);
+        if (windows == null) {
+            Windows created = new Windows();
+            windows = accounts.putIfAbsent(account, created);
+            if (windows == null) {
+                windows = created;
+            }
+        }
+        return windows;
+    }
+
+    private Windows windowsOf(String userId) {
+        Windows windows = users.get(userId);
+        if (windows == null) {
+            Windows created = new Windows();
+            windows = users.putIfAbsent(userId, created);
+            if (windows == null) {
+                windows = created;
+            }
+        }
+        return windows;
+    }
+
+    private static final class Windows {
+        private final SlidingWindow hourly = new SlidingWindow(60, MINUTE);
+        private final SlidingWindow daily = new SlidingWindow(96, 15 * MINUTE);
+        private volatile boolean retired;
+
+        private boolean tryAdd(long amountMinor, long now, long hourlyLimit, long dailyLimit) {
+            if (!hourly.tryAdd(amountMinor, now, hourlyLimit)) {
+                return false;
+            }
+            if (!daily.tryAdd(amountMinor, now, dailyLimit)) {
+                hourly.remove(amountMinor, now);
+                return false;
+            }
+            return true;
+        }
+
+        private void remove(long amountMinor, long now) {
+            hourly.remove(amountMinor, now);
+            daily.remove(amountMinor, now);
+        }
+
+        // The daily window covers the hourly one
+        private boolean isIdle(long now) {
+            return daily.isIdle(now);
+        }
+    }
+
+    static final class SlidingWindow {
+        private final AtomicLongArray buckets;
+        private final int count;
+        private final long bucketMillis;
+
+        SlidingWindow(int count, long bucketMillis) {
+            this.buckets = new AtomicLongArray(count);
+            this.count = count;
+            this.bucketMillis = bucketMillis;
+        }
+
+        boolean tryAdd(long amountMinor, long now, long limit) {
+            long epoch = epochOf(now);
+            int slot = slotOf(now);
+            while (true) {
+                long current = buckets.get(slot);
+                // A bucket left from an earlier lap of the ring starts over
+                long amount = current >>> AMOUNT_BITS == epoch
+                        ? (current & AMOUNT_MASK) + amountMinor
+                        : amountMinor;
+                if (amount > AMOUNT_MASK) {
+                    return false;
+                }
+                if (buckets.compareAndSet(slot, current, epoch << AMOUNT_BITS | amount)) {
+                    break;
+                }
+            }
+            if (limit != UNLIMITED && sum(now) > limit) {
+                remove(amountMinor, now);
+                return false;
+            }
+            return true;
+        }
+
+        void remove(long amountMinor, long now) {
+            long epoch = epochOf(now);
+            int slot = slotOf(now);
+            while (true) {
+                long current = buckets.get(slot);
+                // Nothing to undo once the bucket has been reused
+                if (current >>> AMOUNT_BITS != epoch) {
+                    return;
+                }
+                long amount = Math.max(0, (current & AMOUNT_MASK) - amountMinor);
+                if (buckets.compareAndSet(slot, current, epoch << AMOUNT_BITS | amount)) {
+                    return;
+                }
+            }
+        }
+
+        // Total of the buckets that fall inside the window ending at now; a
+        // bucket stamped later than now (the clock stepped back) still counts
+        long sum(long now) {
+            long epoch = epochOf(now);
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                long bucket = buckets.get(i);
+                long age = (epoch - (bucket >>> AMOUNT_BITS)) & EPOCH_MASK;
+                if (age < count || isAhead(bucket >>> AMOUNT_BITS, epoch)) {
+                    total += bucket & AMOUNT_MASK;
+                }
+            }
+            return total;
+        }
+
+        // True when no bucket falls inside the window ending at now
+        boolean isIdle(long now) {
+            long epoch = epochOf(now);
+            for (int i = 0; i < count; i++) {
+                long bucketEpoch = buckets.get(i) >>> AMOUNT_BITS;
+                if (((epoch - bucketEpoch) & EPOCH_MASK) < count || isAhead(bucketEpoch, epoch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long epochOf(long now) {
+            return (now / bucketMillis) & EPOCH_MASK;
+        }
+
+        private int slotOf(long now) {
+            return (int) ((now / bucketMillis) % count);
+        }
+
+        // True when a bucket is newer than epoch by less than a window
+        private boolean isAhead(long bucketEpoch, long epoch) {
+            long lead = (bucketEpoch - epoch) & EPOCH_MASK;
+            return lead != 0 && lead < count;
+        }
+    }
+}
@@ -11,15 +11,31 @@ public class AccountValidator {
             return false;
         }
 
-        accountNumber = accountNumber.trim();
+        return isValidAccountNumber(accountNumber, 0, accountNumber.length());
+    }
 
-        if (accountNumber.length() < MIN_ACCOUNT_NUMBER_LENGTH ||
-                accountNumber.length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+    // Same rules on a slice, without trimming into a new String or compiling a regex
+    static boolean isValidAccountNumber(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int length = end - start;
+        if (length < MIN_ACCOUNT_NUMBER_LENGTH || length > MAX_ACCOUNT_NUMBER_LENGTH) {
             return false;
         }
 
         // Check if contains only digits
-        return accountNumber.matches("\\d+");
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean isValidEmail(String email) {
@@ -27,12 +43,24 @@ public class AccountValidator {
             return false;
         }
 
-        email = email.trim();
+        return isValidEmail(email, 0, email.length());
+    }
 
-        // Basic email validation
-        return email.contains("@") &&
-                email.indexOf("@") > 0 &&
-                email.indexOf("@") < email.length() - 1;
+    static boolean isValidEmail(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        // Basic email validation: the first '@' is neither the first nor the last character
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '@') {
+                return i > start && i < end - 1;
+            }
+        }
+        return false;
     }
 
     public boolean isValidAge(int age) {
@@ -0,0 +1,201 @@
+package CoderSawan.dev.validator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+// Validates newline-separated records (one value per line) straight from a
+// CharSequence or an ASCII/UTF-8 byte buffer, applying the AccountValidator
+// rules to each line without creating Strings. Results are BitSets where bit i
+// marks record i (0-based line number) as invalid. Inputs larger than
+// PARALLEL_THRESHOLD are split at line boundaries and checked across cores.
+public class BulkAccountValidator {
+
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final int chunkSize;
+
+    public BulkAccountValidator() {
+        this(PARALLEL_THRESHOLD);
+    }
+
+    public BulkAccountValidator(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public BitSet invalidAccountNumbers(CharSequence records) {
+        return validate(records, Field.ACCOUNT_NUMBER);
+    }
+
+    public BitSet invalidAccountNumbers(ByteBuffer records) {
+        return validate(new AsciiSequence(records), Field.ACCOUNT_NUMBER);
+    }
+
+    public BitSet invalidAccountNumbers(Path file) throws IOException {
+        return invalidAccountNumbers(map(file));
+    }
+
+    public BitSet invalidEmails(CharSequence records) {
+        return validate(records, Field.EMAIL);
+    }
+
+    public BitSet invalidEmails(ByteBuffer records) {
+        return validate(new AsciiSequence(records), Field.EMAIL);
+    }
+
+    public BitSet invalidEmails(Path file) throws IOException {
+        return invalidEmails(map(file));
+    }
+
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File too large to map in one buffer: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private enum Field {
+        ACCOUNT_NUMBER,
+        EMAIL
+    }
+
+    private BitSet validate(CharSequence text, Field field) {
+        if (text == null) {
+            throw new IllegalArgumentException("Records cannot be null");
+        }
+        int length = text.length();
+        if (length <= chunkSize) {
+            ChunkResult result = new ChunkResult();
+            validateRange(text, 0, length, field, result);
+            return result.invalid;
+        }
+
+        int[] bounds = chunkBounds(text, length);
+        int chunks = bounds.length - 1;
+        ChunkResult[] results = new ChunkResult[chunks];
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            ChunkResult result = new ChunkResult();
+            validateRange(text, bounds[i], bounds[i + 1], field, result);
+            results[i] = result;
+        });
+
+        // Chunks number their records from zero; shift them into place
+        BitSet invalid = new BitSet();
+        int base = 0;
+        for (ChunkResult result : results) {
+            for (int bit = result.invalid.nextSetBit(0); bit >= 0; bit = result.invalid.nextSetBit(bit + 1)) {
+                invalid.set(base + bit);
+            }
+            base += result.records;
+        }
+        return invalid;
+    }
+
+    // Chunk boundaries always fall just after a '\n', so no record is split
+    private int[] chunkBounds(CharSequence text, int length) {
+        int estimated = length / chunkSize + 2;
+        int[] bounds = new int[estimated];
+        int count = 1;
+        int position = 0;
+        while (position < length) {
+            int next = Math.min(length, position + chunkSize);
+            while (next < length && text.charAt(next - 1) != '\n') {
+                next++;
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = next;
+            position = next;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static void validateRange(CharSequence text, int start, int end, Field field, ChunkResult result) {
+        int lineStart = start;
+        int record = 0;
+        for (int i = start; i <= end; i++) {
+            if (i < end && text.charAt(i) != '\n') {
+                continue;
+            }
+            // A trailing newline does not open another record
+            if (i == end && lineStart == end) {
+                break;
+            }
+            boolean valid = field == Field.ACCOUNT_NUMBER
+                    ? AccountValidator.isValidAccountNumber(text, lineStart, i)
+                    : AccountValidator.isValidEmail(text, lineStart, i);
+            if (!valid) {
+                result.invalid.set(record);
+            }
+            record++;
+            lineStart = i + 1;
+        }
+        result.records = record;
+    }
+
+    private static final class ChunkResult {
+        private final BitSet invalid = new BitSet();
+        private int records;
+    }
+
+    // Single-byte view of a buffer; reads are absolute so chunks can share it
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        private AsciiSequence(ByteBuffer buffer) {
+            if (buffer == null) {
+                throw new IllegalArgumentException("Records cannot be null");
+            }
+            this.buffer = buffer;
+            this.offset = buffer.position();
+            this.length = buffer.remaining();
+        }
+
+        private AsciiSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        // A view over the same bytes; nothing is copied
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new AsciiSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
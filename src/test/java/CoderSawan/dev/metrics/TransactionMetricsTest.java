@@ -0,0 +1,115 @@
+package CoderSawan.dev.metrics;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.service.TransactionService;
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Metrics Tests")
+public class TransactionMetricsTest {
+
+    @Test
+    @DisplayName("Should report percentiles within one bucket of the recorded values")
+    void testHistogram_Percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 * 0.07);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 * 0.07);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Should map every value into a bucket whose bound covers it")
+    void testHistogram_BucketBounds() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, 1L << 39}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(bucket) >= value, "value " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.bucketUpperBound(bucket - 1) < value, "value " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count transfers and each rejection reason")
+    void testService_CountsRejections() {
+        TransactionService service = new TransactionService();
+        TransactionMetrics metrics = new TransactionMetrics();
+        service.setMetrics(metrics);
+        User holder = new User("U001", "John Doe", "john@email.com", 30);
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+        BankAccount closed = new BankAccount("10000003", holder, 0.0);
+        closed.closeAccount();
+
+        service.transfer(from, to, 10.0);
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(from, to, 1000.0));
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(from, to, 60000.0));
+        assertThrows(IllegalStateException.class, () -> service.transfer(from, closed, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(from, from, 1.0));
+
+        assertAll("Metrics",
+                () -> assertEquals(5, metrics.getTransferCount()),
+                () -> assertEquals(1, metrics.getRejectedInsufficientFunds()),
+                () -> assertEquals(1, metrics.getRejectedLimitExceeded()),
+                () -> assertEquals(1, metrics.getRejectedInactiveAccount()),
+                () -> assertEquals(1, metrics.getRejectedInvalidRequest()),
+                () -> assertTrue(metrics.getTransferLatencyMax() > 0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should count deposits and withdrawals made through the service")
+    void testService_CountsDepositsAndWithdrawals() {
+        TransactionService service = new TransactionService();
+        TransactionMetrics metrics = new TransactionMetrics();
+        service.setMetrics(metrics);
+        User holder = new User("U001", "John Doe", "john@email.com", 30);
+        BankAccount account = new BankAccount("10000001", holder, 100.0);
+        BankAccount closed = new BankAccount("10000002", holder, 0.0);
+        closed.closeAccount();
+
+        service.deposit(account, 50.0);
+        assertThrows(IllegalStateException.class, () -> service.deposit(closed, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> service.deposit(account, -1.0));
+        service.withdraw(account, 20.0);
+        assertThrows(IllegalArgumentException.class, () -> service.withdraw(account, 1000.0));
+        assertEquals(TransactionResult.INACTIVE_ACCOUNT, service.tryWithdraw(closed, 1.0));
+
+        assertAll("Metrics",
+                () -> assertEquals(130.0, account.getBalance()),
+                () -> assertEquals(3, metrics.getDepositCount()),
+                () -> assertEquals(3, metrics.getWithdrawCount()),
+                () -> assertEquals(2, metrics.getRejectedInactiveAccount()),
+                () -> assertEquals(1, metrics.getRejectedInvalidRequest()),
+                () -> assertEquals(1, metrics.getRejectedInsufficientFunds()),
+                () -> assertEquals(0, metrics.getTransferCount()),
+                () -> assertTrue(metrics.getWithdrawLatencyMax() > 0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should be readable through JMX")
+    void testMBean_Registration() throws Exception {
+        TransactionMetrics metrics = new TransactionMetrics();
+        metrics.registerMBean();
+        try {
+            metrics.reject(RejectionReason.LIMIT_EXCEEDED);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Object value = server.getAttribute(new ObjectName(TransactionMetrics.OBJECT_NAME), "RejectedLimitExceeded");
+            assertEquals(1L, value);
+        } finally {
+            metrics.unregisterMBean();
+        }
+    }
+}
@@ -1,4 +1,230 @@
 package CoderSawan.dev.model;
 
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bank Account Tests")
 public class BankAccountTest {
+
+    private User holder;
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+        account = new BankAccount("10000001", holder, 100.0);
+    }
+
+    // ================Deposit / Withdraw===========
+
+    @Test
+    @DisplayName("Should keep exact cents without floating-point drift")
+    void testDeposit_NoDrift() {
+        for (int i = 0; i < 10; i++) {
+            account.deposit(0.1);
+        }
+
+        assertEquals(101.0, account.getBalance());
+        assertEquals(10100, account.getBalanceMinor());
+    }
+
+    @Test
+    @DisplayName("Should reject deposits that round to zero cents")
+    void testDeposit_SubCent() {
+        assertThrows(IllegalArgumentException.class, () -> account.deposit(0.001));
+    }
+
+    @Test
+    @DisplayName("Should reject withdrawal above balance")
+    void testWithdraw_InsufficientFunds() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> account.withdraw(100.01));
+        assertEquals("Insufficient funds. Balance: 100.0", exception.getMessage());
+        assertEquals(100.0, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should debit amount and fee together")
+    void testWithdraw_WithFee() {
+        account.withdraw(95.0, 5.0);
+
+        assertEquals(0.0, account.getBalance());
+        assertEquals(List.of("Initial deposit: 100.0", "Withdrawn: 95.0", "Withdrawn: 5.0"),
+                account.getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should reverse a debit even after the account is closed")
+    void testReverseDebit_ClosedAccount() {
+        account.withdraw(95.0, 5.0);
+        account.closeAccount();
+        account.reverseDebit(10000);
+
+        assertAll("Reversed",
+                () -> assertEquals(100.0, account.getBalance()),
+                () -> assertFalse(account.isActive()),
+                () -> assertEquals(List.of("Initial deposit: 100.0", "Withdrawn: 95.0", "Withdrawn: 5.0",
+                        "Account closed", "Reversed: 100.0"), account.getTransactionHistory())
+        );
+    }
+
+    @Test
+    @DisplayName("Should not debit anything when amount plus fee exceeds balance")
+    void testWithdraw_WithFeeInsufficient() {
+        assertThrows(IllegalArgumentException.class, () -> account.withdraw(96.0, 5.0));
+        assertEquals(100.0, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should keep the history text of every operation")
+    void testTransactionHistory_Text() {
+        account.deposit(50.0);
+        account.withdraw(150.0);
+        account.closeAccount();
+        account.reactivateAccount();
+
+        assertEquals(List.of("Initial deposit: 100.0", "Deposited: 50.0", "Withdrawn: 150.0",
+                "Account closed", "Account reactivated"), account.getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should report withdrawal rejections as result codes")
+    void testTryWithdraw_ResultCodes() {
+        assertAll("Results",
+                () -> assertEquals(TransactionResult.INSUFFICIENT_FUNDS, account.tryWithdraw(100.01)),
+                () -> assertEquals(TransactionResult.INVALID_AMOUNT, account.tryWithdraw(0.001)),
+                () -> assertEquals(TransactionResult.INVALID_AMOUNT, account.tryWithdraw(Double.NaN)),
+                () -> assertEquals(TransactionResult.INVALID_AMOUNT, account.tryWithdraw(10.0, -1.0)),
+                () -> assertEquals(100.0, account.getBalance()),
+                () -> assertEquals(TransactionResult.SUCCESS, account.tryWithdraw(95.0, 5.0)),
+                () -> assertEquals(0.0, account.getBalance())
+        );
+
+        account.closeAccount();
+        assertEquals(TransactionResult.INACTIVE_ACCOUNT, account.tryWithdraw(1.0));
+    }
+
+    @Test
+    @DisplayName("Should keep the exception messages of the throwing wrappers")
+    void testWithdraw_WrapperMessages() {
+        assertAll("Messages",
+                () -> assertEquals("Withdrawal amount must be positive",
+                        assertThrows(IllegalArgumentException.class, () -> account.withdraw(-1.0)).getMessage()),
+                () -> assertEquals("Amount must be a finite number",
+                        assertThrows(IllegalArgumentException.class, () -> account.withdraw(Double.NaN)).getMessage()),
+                () -> assertEquals("Fee cannot be negative",
+                        assertThrows(IllegalArgumentException.class, () -> account.withdraw(1.0, -1.0)).getMessage())
+        );
+    }
+
+    @Test
+    @DisplayName("Should read balance and status together")
+    void testView() {
+        BalanceView open = account.view();
+        account.withdraw(100.0);
+        account.closeAccount();
+        BalanceView closed = account.view();
+
+        assertAll("Views",
+                () -> assertEquals(100.0, open.getBalance()),
+                () -> assertTrue(open.isActive()),
+                () -> assertEquals(0.0, closed.getBalance()),
+                () -> assertFalse(closed.isActive())
+        );
+    }
+
+    //====Concurrency========
+
+    @Test
+    @DisplayName("Should not lose concurrent deposits and withdrawals")
+    void testConcurrentDepositsAndWithdrawals() throws Exception {
+        int threads = 8;
+        int operations = 10000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < operations; i++) {
+                    account.deposit(1.25);
+                    account.withdraw(1.0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100.0 + threads * operations * 0.25, account.getBalance(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should never overdraw under concurrent withdrawals")
+    void testConcurrentWithdrawals_NeverOverdraw() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                int succeeded = 0;
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        account.withdraw(1.0);
+                        succeeded++;
+                    } catch (IllegalArgumentException e) {
+                        // insufficient funds
+                    }
+                }
+                return succeeded;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100, total);
+        assertEquals(0.0, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should never let a deposit land on an account closed concurrently")
+    void testConcurrentDepositAndClose_NoMoneyOnClosedAccount() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            BankAccount empty = new BankAccount("10000002", holder, 0.0);
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            Future<Boolean> deposited = pool.submit(() -> {
+                try {
+                    empty.deposit(1.0);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            });
+            Future<Boolean> closed = pool.submit(() -> {
+                try {
+                    empty.closeAccount();
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            });
+            boolean depositApplied = deposited.get(10, TimeUnit.SECONDS);
+            boolean closeApplied = closed.get(10, TimeUnit.SECONDS);
+            pool.shutdown();
+
+            BalanceView view = empty.view();
+            assertNotEquals(depositApplied, closeApplied);
+            assertEquals(depositApplied ? 1.0 : 0.0, view.getBalance());
+            assertEquals(depositApplied, view.isActive());
+        }
+    }
 }
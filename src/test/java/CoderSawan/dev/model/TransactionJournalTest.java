@@ -0,0 +1,154 @@
+package CoderSawan.dev.model;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Journal Tests")
+public class TransactionJournalTest {
+
+    private TransactionJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new TransactionJournal();
+    }
+
+    @Test
+    @DisplayName("Should store type, amount, sequence and timestamp per record")
+    void testAppend_StoresFields() {
+        long before = System.currentTimeMillis();
+        long sequence = journal.append(TransactionType.DEPOSIT, 1250);
+
+        assertAll("Record",
+                () -> assertEquals(1, sequence),
+                () -> assertEquals(1, journal.size()),
+                () -> assertEquals(TransactionType.DEPOSIT, journal.typeAt(0)),
+                () -> assertEquals(1250, journal.amountAt(0)),
+                () -> assertEquals(1, journal.sequenceAt(0)),
+                () -> assertTrue(journal.timestampAt(0) >= before),
+                () -> assertEquals("Deposited: 12.5", journal.describe(0))
+        );
+    }
+
+    @Test
+    @DisplayName("Should grow across several pages and keep every record")
+    void testAppend_AcrossPages() {
+        int count = TransactionJournal.PAGE_RECORDS * 3 + 7;
+        for (int i = 0; i < count; i++) {
+            journal.append(TransactionType.WITHDRAWAL, i);
+        }
+
+        TransactionJournal.Cursor cursor = journal.cursor();
+        int visited = 0;
+        while (cursor.next()) {
+            assertEquals(visited, cursor.amount());
+            assertEquals(visited + 1, cursor.sequence());
+            visited++;
+        }
+        assertEquals(count, visited);
+    }
+
+    @Test
+    @DisplayName("Should keep views stable while new records are appended")
+    void testViews_SnapshotSize() {
+        journal.append(TransactionType.DEPOSIT, 100);
+        TransactionJournal.Cursor cursor = journal.cursor();
+        var strings = journal.asStrings();
+
+        journal.append(TransactionType.DEPOSIT, 200);
+
+        assertEquals(1, strings.size());
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        assertThrows(UnsupportedOperationException.class, () -> strings.add("x"));
+    }
+
+    @Test
+    @DisplayName("Should continue numbering from the given first sequence")
+    void testFirstSequence() {
+        TransactionJournal restored = new TransactionJournal(42);
+        restored.append(TransactionType.ACCOUNT_CLOSED, 0);
+
+        assertEquals(42, restored.sequenceAt(0));
+        assertEquals(43, restored.getNextSequence());
+        assertEquals("Account closed", restored.describe(0));
+    }
+
+    @Test
+    @DisplayName("Should find the first record at or after a timestamp across pages")
+    void testIndexAtOrAfter() {
+        int count = TransactionJournal.PAGE_RECORDS * 3;
+        for (int i = 0; i < count; i++) {
+            // Two records per millisecond
+            journal.append(TransactionType.DEPOSIT, i, 1_000 + i / 2);
+        }
+
+        assertAll("Lower bounds",
+                () -> assertEquals(0, journal.indexAtOrAfter(0)),
+                () -> assertEquals(0, journal.indexAtOrAfter(1_000)),
+                () -> assertEquals(2, journal.indexAtOrAfter(1_001)),
+                () -> assertEquals(TransactionJournal.PAGE_RECORDS, journal.indexAtOrAfter(1_000 + TransactionJournal.PAGE_RECORDS / 2)),
+                () -> assertEquals(count - 2, journal.indexAtOrAfter(1_000 + count / 2 - 1)),
+                () -> assertEquals(count, journal.indexAtOrAfter(Long.MAX_VALUE))
+        );
+    }
+
+    @Test
+    @DisplayName("Should page through a time range filtered by type")
+    void testQuery_RangeTypeAndCursor() {
+        int count = TransactionJournal.PAGE_RECORDS * 10;
+        for (int i = 0; i < count; i++) {
+            TransactionType type = i % 100 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+            journal.append(type, i, 10_000 + i);
+        }
+
+        Set<TransactionType> withdrawals = EnumSet.of(TransactionType.WITHDRAWAL);
+        List<HistoryEntry> found = new ArrayList<>();
+        long cursor = HistoryPage.START;
+        int pages = 0;
+        do {
+            HistoryPage page = journal.query(10_500, 12_000, withdrawals, cursor, 4);
+            found.addAll(page.getEntries());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != HistoryPage.END);
+
+        assertEquals(15, found.size());
+        assertEquals(4, pages);
+        for (int i = 0; i < found.size(); i++) {
+            HistoryEntry entry = found.get(i);
+            assertEquals(TransactionType.WITHDRAWAL, entry.getType());
+            assertEquals(500 + i * 100, entry.getAmountMinor());
+            assertEquals(10_500 + i * 100, entry.getTimestamp());
+            assertEquals(entry.getAmountMinor() + 1, entry.getSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip pages without the wanted type and reject bad arguments")
+    void testQuery_SkipsPagesAndValidates() {
+        for (int i = 0; i < TransactionJournal.PAGE_RECORDS * 4; i++) {
+            journal.append(TransactionType.DEPOSIT, i, i);
+        }
+        journal.append(TransactionType.ACCOUNT_CLOSED, 0, Long.MAX_VALUE - 1);
+
+        HistoryPage closed = journal.query(0, Long.MAX_VALUE, EnumSet.of(TransactionType.ACCOUNT_CLOSED), HistoryPage.START, 10);
+        HistoryPage all = journal.query(5, 8, null, HistoryPage.START, 10);
+
+        assertAll("Query",
+                () -> assertEquals(1, closed.getEntries().size()),
+                () -> assertFalse(closed.hasMore()),
+                () -> assertEquals(0, journal.pageTypeMask(0) & (1L << TransactionType.ACCOUNT_CLOSED.getCode())),
+                () -> assertEquals(3, all.getEntries().size()),
+                () -> assertEquals("Deposited: 0.05", all.getEntries().get(0).describe()),
+                () -> assertThrows(IllegalArgumentException.class, () -> journal.query(0, 1, null, 0, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> journal.query(2, 1, null, 0, 1))
+        );
+    }
+}
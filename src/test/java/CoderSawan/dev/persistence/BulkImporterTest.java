@@ -0,0 +1,85 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.repository.AccountRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulk Importer Tests")
+public class BulkImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private AccountRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountRegistry();
+    }
+
+    @Test
+    @DisplayName("Should import valid rows and write rejected rows with their reasons")
+    void testImport_MixedRows() throws Exception {
+        Path csv = dir.resolve("accounts.csv");
+        Files.writeString(csv, String.join("\n",
+                "userId,name,email,age,accountNumber,initialBalance",
+                "U001,John Doe,john@email.com,30,10000001,100.50",
+                "U002,Jane Doe,jane-at-email.com,40,10000002,10",
+                "U003,Young,young@email.com,17,10000003,10",
+                "U004,Bad Number,bad@email.com,30,12AB,10",
+                "U005,Too Few,few@email.com,30",
+                "U006,Copy,copy@email.com,30,10000001,5",
+                "U007, Spaced ,spaced@email.com, 65 , 10000007 ,0\r",
+                "") , StandardCharsets.UTF_8);
+        Path rejected = dir.resolve("rejected.csv");
+
+        // A tiny chunk size puts every row in its own chunk
+        BulkImporter.Result result = new BulkImporter(registry, 16, 2).importFile(csv, rejected);
+
+        assertAll("Import",
+                () -> assertEquals(7, result.getRecords()),
+                () -> assertEquals(2, result.getImported()),
+                () -> assertEquals(5, result.getRejected()),
+                () -> assertEquals(100.5, registry.get("10000001").getBalance()),
+                () -> assertTrue(registry.get("10000007").getAccountHolder().isSenior()),
+                () -> assertEquals(List.of(
+                        "3,Invalid email,U002,Jane Doe,jane-at-email.com,40,10000002,10",
+                        "4,Cannot open account,U003,Young,young@email.com,17,10000003,10",
+                        "5,Invalid account number,U004,Bad Number,bad@email.com,30,12AB,10",
+                        "6,Expected 6 fields,U005,Too Few,few@email.com,30",
+                        "7,Duplicate account number,U006,Copy,copy@email.com,30,10000001,5"
+                ), Files.readAllLines(rejected))
+        );
+    }
+
+    @Test
+    @DisplayName("Should import a large file across parallel chunks")
+    void testImport_ManyRows() throws Exception {
+        Path csv = dir.resolve("accounts.csv");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            String email = i % 1000 == 0 ? "broken" : "user" + i + "@email.com";
+            text.append("U").append(i).append(",User ").append(i).append(',').append(email)
+                    .append(",30,").append(10_000_000 + i).append(",1.25\n");
+        }
+        Files.writeString(csv, text, StandardCharsets.UTF_8);
+
+        BulkImporter.Result result = new BulkImporter(registry, 64 * 1024, 512)
+                .importFile(csv, dir.resolve("rejected.csv"));
+
+        assertEquals(200_000, result.getRecords());
+        assertEquals(199_800, result.getImported());
+        assertEquals(199_800, registry.size());
+        BankAccount last = registry.get(String.valueOf(10_000_000 + 199_999));
+        assertEquals("U199999", last.getAccountHolder().getUserId());
+        assertTrue(Files.readAllLines(dir.resolve("rejected.csv")).get(1).startsWith("1001,Invalid email,U1000,"));
+    }
+}
@@ -0,0 +1,218 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.AccountTier;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Snapshot Store Tests")
+public class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Path snapshotFile;
+    private Path logFile;
+    private User holder;
+    private Function<String, User> users;
+
+    @BeforeEach
+    void setUp() {
+        snapshotFile = dir.resolve("accounts.snap");
+        logFile = dir.resolve("accounts.wal");
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+        users = id -> id.equals("U001") ? holder : null;
+    }
+
+    @Test
+    @DisplayName("Should hydrate accounts lazily from the checkpoint")
+    void testCheckpoint_LazyHydration() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        SnapshotStore store = new SnapshotStore(snapshotFile, registry, users);
+        for (int i = 0; i < 1000; i++) {
+            registry.register(new BankAccount(String.valueOf(10_000_000 + i), holder, i));
+        }
+        registry.get("10000007").withdraw(7.0);
+        registry.get("10000007").closeAccount();
+
+        assertEquals(1000, store.checkpoint(0));
+
+        AccountRegistry restartedRegistry = new AccountRegistry();
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, restartedRegistry, users);
+
+        assertEquals(0, restartedRegistry.size());
+        BankAccount account = restarted.get("10000500");
+        BankAccount closed = restarted.get("10000007");
+        assertAll("Hydrated",
+                () -> assertEquals(500.0, account.getBalance()),
+                () -> assertTrue(account.isActive()),
+                () -> assertSame(account, restarted.get("10000500")),
+                () -> assertFalse(closed.isActive()),
+                () -> assertNull(restarted.get("99999999")),
+                () -> assertEquals(2, restartedRegistry.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep unhydrated accounts when checkpointing again")
+    void testCheckpoint_MergesUnhydrated() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("10000001", holder, 10.0));
+        registry.register(new BankAccount("10000002", holder, 20.0));
+        new SnapshotStore(snapshotFile, registry, users).checkpoint(0);
+
+        AccountRegistry restartedRegistry = new AccountRegistry();
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, restartedRegistry, users);
+        restarted.get("10000001").deposit(5.0);
+        restartedRegistry.register(new BankAccount("10000003", holder, 30.0));
+        assertEquals(3, restarted.checkpoint(0));
+
+        SnapshotStore third = new SnapshotStore(snapshotFile, new AccountRegistry(), users);
+        assertEquals(15.0, third.get("10000001").getBalance());
+        assertEquals(20.0, third.get("10000002").getBalance());
+        assertEquals(30.0, third.get("10000003").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should not bring back accounts removed from the registry")
+    void testCheckpoint_RemovedAccounts() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        SnapshotStore store = new SnapshotStore(snapshotFile, registry, users);
+        registry.register(new BankAccount("10000001", holder, 10.0));
+        registry.register(new BankAccount("10000002", holder, 20.0));
+        registry.register(new BankAccount("10000003", holder, 30.0));
+        store.checkpoint(0);
+
+        // One removed after a checkpoint wrote it, one after hydration
+        registry.remove("10000001");
+        assertEquals(2, store.checkpoint(0));
+        assertNull(store.get("10000001"));
+
+        AccountRegistry restartedRegistry = new AccountRegistry();
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, restartedRegistry, users);
+        assertNotNull(restarted.get("10000002"));
+        restartedRegistry.remove("10000002");
+        assertNull(restarted.get("10000002"));
+        assertEquals(1, restarted.checkpoint(0));
+
+        SnapshotStore third = new SnapshotStore(snapshotFile, new AccountRegistry(), users);
+        assertAll("Removed",
+                () -> assertNull(third.get("10000001")),
+                () -> assertNull(third.get("10000002")),
+                () -> assertEquals(30.0, third.get("10000003").getBalance())
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep holder ids too long for a record in the string table")
+    void testCheckpoint_LongHolderIds() throws Exception {
+        User federated = new User("federated|" + "x".repeat(70) + "|\u00e9", "Jane Roe", "jane@email.com", 40);
+        Function<String, User> lookup = id -> id.equals(federated.getUserId()) ? federated : users.apply(id);
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new BankAccount("10000001", federated, 10.0));
+        registry.register(new BankAccount("10000002", holder, 20.0));
+        registry.register(new BankAccount("10000003", federated, 30.0));
+        new SnapshotStore(snapshotFile, registry, lookup).checkpoint(0);
+
+        // Checkpoint again with nothing hydrated, so records are copied over
+        AccountRegistry restartedRegistry = new AccountRegistry();
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, restartedRegistry, lookup);
+        restarted.get("10000003").deposit(5.0);
+        assertEquals(3, restarted.checkpoint(0));
+
+        SnapshotStore third = new SnapshotStore(snapshotFile, new AccountRegistry(), lookup);
+        assertAll("Long holder ids",
+                () -> assertSame(federated, third.get("10000001").getAccountHolder()),
+                () -> assertEquals(10.0, third.get("10000001").getBalance()),
+                () -> assertSame(holder, third.get("10000002").getAccountHolder()),
+                () -> assertSame(federated, third.get("10000003").getAccountHolder()),
+                () -> assertEquals(35.0, third.get("10000003").getBalance())
+        );
+    }
+
+    @Test
+    @DisplayName("Should replay only the log tail on top of the checkpoint")
+    void testRecover_CheckpointPlusLogTail() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        SnapshotStore store = new SnapshotStore(snapshotFile, registry, users);
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount a = new BankAccount("10000001", holder, 100.0);
+            registry.register(a);
+            log.attach(a);
+            a.deposit(10.0);
+
+            store.checkpoint(log);
+
+            a.deposit(1.0);
+            a.withdraw(50.0);
+            BankAccount b = new BankAccount("10000002", holder, 5.0);
+            registry.register(b);
+            log.attach(b);
+        }
+
+        AccountRegistry restartedRegistry = new AccountRegistry();
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, restartedRegistry, users);
+        long applied = restarted.recoverLog(logFile);
+
+        assertEquals(3, applied);
+        assertEquals(61.0, restarted.get("10000001").getBalance());
+        assertEquals(List.of("Deposited: 1.0", "Withdrawn: 50.0"), restarted.get("10000001").getTransactionHistory());
+        assertEquals(5.0, restarted.get("10000002").getBalance());
+
+        // A full replay from the start of the log gives the same balances
+        AccountRegistry fromLog = new AccountRegistry();
+        WriteAheadLog.recover(logFile, fromLog, users);
+        assertEquals(61.0, fromLog.get("10000001").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should restore account tiers from the checkpoint and the log")
+    void testRecover_Tiers() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        SnapshotStore store = new SnapshotStore(snapshotFile, registry, users);
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount premium = new BankAccount("10000001", holder, 100.0);
+            premium.setTier(AccountTier.PREMIUM);
+            BankAccount business = new BankAccount("10000002", holder, 0.0);
+            business.setTier(AccountTier.BUSINESS);
+            business.closeAccount();
+            registry.register(premium);
+            registry.register(business);
+            log.attach(premium);
+            log.attach(business);
+
+            store.checkpoint(log);
+
+            premium.setTier(AccountTier.BUSINESS);
+            BankAccount late = new BankAccount("10000003", holder, 5.0);
+            late.setTier(AccountTier.PREMIUM);
+            registry.register(late);
+            log.attach(late);
+        }
+
+        SnapshotStore restarted = new SnapshotStore(snapshotFile, new AccountRegistry(), users);
+        SnapshotStore snapshotOnly = new SnapshotStore(snapshotFile, new AccountRegistry(), users);
+        restarted.recoverLog(logFile);
+        AccountRegistry fromLog = new AccountRegistry();
+        WriteAheadLog.recover(logFile, fromLog, users);
+
+        assertAll("Tiers",
+                () -> assertEquals(AccountTier.PREMIUM, snapshotOnly.get("10000001").getTier()),
+                () -> assertEquals(AccountTier.BUSINESS, snapshotOnly.get("10000002").getTier()),
+                () -> assertFalse(snapshotOnly.get("10000002").isActive()),
+                () -> assertEquals(AccountTier.BUSINESS, restarted.get("10000001").getTier()),
+                () -> assertEquals(AccountTier.PREMIUM, restarted.get("10000003").getTier()),
+                () -> assertEquals(AccountTier.BUSINESS, fromLog.get("10000001").getTier()),
+                () -> assertEquals(AccountTier.BUSINESS, fromLog.get("10000002").getTier()),
+                () -> assertEquals(AccountTier.PREMIUM, fromLog.get("10000003").getTier())
+        );
+    }
+}
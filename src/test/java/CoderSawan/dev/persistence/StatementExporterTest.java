@@ -0,0 +1,109 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Statement Exporter Tests")
+public class StatementExporterTest {
+
+    // 2026-10-01 00:00:00 UTC
+    private static final long OCTOBER = 1_790_812_800_000L;
+    private static final long NOVEMBER = OCTOBER + 31L * 86_400_000;
+
+    @TempDir
+    Path dir;
+
+    private final User holder = new User("U001", "John Doe", "john@email.com", 30);
+
+    private BankAccount account(String number) {
+        BankAccount account = BankAccount.restore(number, holder, 0, true, 1);
+        account.replay(TransactionType.DEPOSIT, 10_000, OCTOBER - 1);
+        account.replay(TransactionType.WITHDRAWAL, 1_205, OCTOBER + 3_723_000);
+        account.replay(TransactionType.FEE, 100, OCTOBER + 3_723_000);
+        account.replay(TransactionType.ACCOUNT_CLOSED, 0, OCTOBER + 86_400_000);
+        account.replay(TransactionType.ACCOUNT_REACTIVATED, 0, NOVEMBER);
+        return account;
+    }
+
+    @Test
+    @DisplayName("Should write only the period's entries as CSV rows")
+    void testExport_Csv() throws Exception {
+        StatementExporter.Result result = new StatementExporter().export(
+                List.of(account("10000002"), account("10000001")), OCTOBER, NOVEMBER,
+                StatementExporter.Format.CSV, dir);
+
+        assertAll("CSV",
+                () -> assertEquals(2, result.getAccounts()),
+                () -> assertEquals(6, result.getEntries()),
+                () -> assertEquals(List.of(dir.resolve("statements-00000.csv")), result.getFiles()),
+                () -> assertEquals(Files.size(result.getFiles().get(0)), result.getBytes()),
+                () -> assertEquals(List.of(
+                        "accountNumber,sequence,timestamp,type,amount",
+                        "10000001,2," + (OCTOBER + 3_723_000) + ",WITHDRAWAL,12.05",
+                        "10000001,3," + (OCTOBER + 3_723_000) + ",FEE,1.00",
+                        "10000001,4," + (OCTOBER + 86_400_000) + ",ACCOUNT_CLOSED,0.00",
+                        "10000002,2," + (OCTOBER + 3_723_000) + ",WITHDRAWAL,12.05",
+                        "10000002,3," + (OCTOBER + 3_723_000) + ",FEE,1.00",
+                        "10000002,4," + (OCTOBER + 86_400_000) + ",ACCOUNT_CLOSED,0.00"
+                ), Files.readAllLines(result.getFiles().get(0)))
+        );
+    }
+
+    @Test
+    @DisplayName("Should write a text block per account with UTC date-times")
+    void testExport_Text() throws Exception {
+        StatementExporter.Result result = new StatementExporter().export(
+                List.of(account("10000001")), OCTOBER, NOVEMBER, StatementExporter.Format.TEXT, dir);
+
+        assertEquals(List.of(
+                "Statement for account 10000001 - John Doe",
+                "Period: 2026-10-01 00:00:00 to 2026-11-01 00:00:00 UTC",
+                "  2026-10-01 01:02:03  #2  WITHDRAWAL  12.05",
+                "  2026-10-01 01:02:03  #3  FEE  1.00",
+                "  2026-10-02 00:00:00  #4  ACCOUNT_CLOSED",
+                "Entries: 3",
+                ""
+        ), Files.readAllLines(result.getFiles().get(0)));
+    }
+
+    @Test
+    @DisplayName("Should split accounts into part files through a small buffer")
+    void testExport_PartsAndSmallBuffer() throws Exception {
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            BankAccount account = BankAccount.restore(String.valueOf(10_000_000 + i), holder, 0, true, 1);
+            for (int j = 0; j < 200; j++) {
+                account.replay(TransactionType.DEPOSIT, j, OCTOBER + j);
+            }
+            accounts.add(account);
+        }
+
+        StatementExporter.Result result = new StatementExporter(16, 256)
+                .export(accounts, OCTOBER, NOVEMBER, StatementExporter.Format.CSV, dir);
+
+        long rows = 0;
+        for (Path file : result.getFiles()) {
+            rows += Files.readAllLines(file).size() - 1;
+        }
+        long total = rows;
+        assertAll("Parts",
+                () -> assertEquals(4, result.getFiles().size()),
+                () -> assertEquals(10_000, result.getEntries()),
+                () -> assertEquals(10_000, total),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new StatementExporter(0, 1024)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new StatementExporter().export(accounts, 2, 1, StatementExporter.Format.CSV, dir))
+        );
+    }
+}
@@ -0,0 +1,303 @@
+package CoderSawan.dev.persistence;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import CoderSawan.dev.service.TransactionService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Write-Ahead Log Tests")
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private User holder;
+    private Function<String, User> users;
+
+    @BeforeEach
+    void setUp() {
+        logFile = dir.resolve("accounts.wal");
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+        users = id -> id.equals("U001") ? holder : null;
+    }
+
+    @Test
+    @DisplayName("Should rebuild balances, status and history from the log")
+    void testRecover_RebuildsAccounts() throws Exception {
+        TransactionService service = new TransactionService();
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            service.setWriteAheadLog(log);
+            BankAccount a = new BankAccount("10000001", holder, 500.0);
+            BankAccount b = new BankAccount("10000002", holder, 0.0);
+            log.attach(a);
+            log.attach(b);
+
+            a.deposit(25.5);
+            service.transfer(a, b, 100.0);
+            b.withdraw(100.0);
+            b.closeAccount();
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        long applied = WriteAheadLog.recover(logFile, registry, users);
+
+        BankAccount a = registry.get("10000001");
+        BankAccount b = registry.get("10000002");
+        assertAll("Recovered",
+                () -> assertEquals(8, applied),
+                () -> assertEquals(420.5, a.getBalance()),
+                () -> assertEquals(0.0, b.getBalance()),
+                () -> assertFalse(b.isActive()),
+                () -> assertEquals(List.of("Initial deposit: 500.0", "Deposited: 25.5", "Withdrawn: 100.0", "Withdrawn: 5.0"),
+                        a.getTransactionHistory()),
+                () -> assertEquals(List.of("Deposited: 100.0", "Withdrawn: 100.0", "Account closed"),
+                        b.getTransactionHistory())
+        );
+    }
+
+    @Test
+    @DisplayName("Should drop a torn tail and keep appending after the last good frame")
+    void testRecover_TornTail() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount a = new BankAccount("10000001", holder, 100.0);
+            log.attach(a);
+            a.deposit(1.0);
+            a.deposit(2.0);
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, users);
+        BankAccount a = registry.get("10000001");
+        assertEquals(101.0, a.getBalance());
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            a.setMutationListener(log);
+            a.deposit(4.0);
+        }
+        AccountRegistry again = new AccountRegistry();
+        WriteAheadLog.recover(logFile, again, users);
+        assertEquals(105.0, again.get("10000001").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should credit the receiver of a transfer whose credit was never logged")
+    void testRecover_OpenIntentCredits() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount from = new BankAccount("10000001", holder, 100.0);
+            BankAccount to = new BankAccount("10000002", holder, 0.0);
+            log.attach(from);
+            log.attach(to);
+
+            log.beginGroup();
+            try {
+                long intent = from.getJournal().getNextSequence();
+                from.withdraw(50.0, 5.0);
+                log.logTransferIntent(from, intent, to, 5000, 5500);
+            } finally {
+                log.endGroup();
+            }
+            assertTrue(log.getCheckpointPosition() < log.getDurablePosition());
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        assertEquals(5, WriteAheadLog.recover(logFile, registry, users));
+        assertEquals(45.0, registry.get("10000001").getBalance());
+        assertEquals(50.0, registry.get("10000002").getBalance());
+
+        AccountRegistry again = new AccountRegistry();
+        WriteAheadLog.recover(logFile, again, users);
+        assertEquals(50.0, again.get("10000002").getBalance());
+        assertEquals(List.of("Deposited: 50.0"), again.get("10000002").getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should refund the sender when the receiver of an open intent is closed")
+    void testRecover_OpenIntentRefunds() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount from = new BankAccount("10000001", holder, 100.0);
+            BankAccount to = new BankAccount("10000002", holder, 0.0);
+            log.attach(from);
+            log.attach(to);
+            to.closeAccount();
+
+            log.beginGroup();
+            try {
+                long intent = from.getJournal().getNextSequence();
+                from.withdraw(50.0, 5.0);
+                log.logTransferIntent(from, intent, to, 5000, 5500);
+            } finally {
+                log.endGroup();
+            }
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, users);
+        assertEquals(100.0, registry.get("10000001").getBalance());
+        assertEquals(List.of("Initial deposit: 100.0", "Withdrawn: 50.0", "Withdrawn: 5.0", "Reversed: 55.0"),
+                registry.get("10000001").getTransactionHistory());
+        assertEquals(0.0, registry.get("10000002").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should leave resolved intents alone on recovery")
+    void testRecover_ResolvedIntent() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount from = new BankAccount("10000001", holder, 100.0);
+            BankAccount to = new BankAccount("10000002", holder, 0.0);
+            log.attach(from);
+            log.attach(to);
+
+            long intent = from.getJournal().getNextSequence();
+            log.beginGroup();
+            try {
+                from.withdraw(50.0, 5.0);
+                log.logTransferIntent(from, intent, to, 5000, 5500);
+            } finally {
+                log.endGroup();
+            }
+            log.beginGroup();
+            try {
+                to.deposit(50.0);
+                log.resolveTransferIntent(from, intent);
+            } finally {
+                log.endGroup();
+            }
+            assertEquals(log.getDurablePosition(), log.getCheckpointPosition());
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, users);
+        assertEquals(45.0, registry.get("10000001").getBalance());
+        assertEquals(50.0, registry.get("10000002").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should share one fsync between concurrent writers")
+    void testGroupCommit() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            log.attach(account);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        account.deposit(1.0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            assertTrue(log.getSyncCount() < threads * perThread,
+                    "expected fewer syncs than records, got " + log.getSyncCount());
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, users);
+        assertEquals(threads * perThread, registry.get("10000001").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should log every mutation racing attach exactly once and keep earlier listeners")
+    void testAttach_RacingMutations() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path file = dir.resolve("race-" + round + ".wal");
+            BankAccount account = new BankAccount("10000001", holder, 0.0);
+            AtomicInteger seen = new AtomicInteger();
+            account.addMutationListener((a, type, amount, sequence, timestamp) -> seen.incrementAndGet());
+            CountDownLatch started = new CountDownLatch(1);
+            ExecutorService pool = Executors.newSingleThreadExecutor();
+            try (WriteAheadLog log = new WriteAheadLog(file)) {
+                Future<?> depositor = pool.submit(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 200; i++) {
+                        account.deposit(1.0);
+                    }
+                });
+                started.await();
+                log.attach(account);
+                depositor.get(60, TimeUnit.SECONDS);
+                account.deposit(1.0);
+            } finally {
+                pool.shutdown();
+            }
+
+            AccountRegistry registry = new AccountRegistry();
+            WriteAheadLog.recover(file, registry, users);
+            assertEquals(201.0, registry.get("10000001").getBalance(), "Round " + round);
+            assertEquals(201, seen.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay each account's records in sequence order, not log order")
+    void testRecover_OutOfOrderRecords() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount a = new BankAccount("10000001", holder, 0.0);
+            log.attach(a);
+            long next = a.getJournal().getNextSequence();
+            // A close and a reactivate whose records reached the log swapped
+            log.onMutation(a, TransactionType.ACCOUNT_REACTIVATED, 0, next + 1, 2);
+            log.onMutation(a, TransactionType.ACCOUNT_CLOSED, 0, next, 1);
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        assertEquals(3, WriteAheadLog.recover(logFile, registry, users));
+        assertTrue(registry.get("10000001").isActive());
+        assertEquals(List.of("Account closed", "Account reactivated"),
+                registry.get("10000001").getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should close a gap left by the torn tail the same way on every recovery")
+    void testRecover_GapAfterTornTail() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            BankAccount a = new BankAccount("10000001", holder, 100.0);
+            log.attach(a);
+            long next = a.getJournal().getNextSequence();
+            // The deposit at next was lost with the tail; the one after it survived
+            log.onMutation(a, TransactionType.DEPOSIT, 200, next + 1, 1);
+        }
+
+        AccountRegistry first = new AccountRegistry();
+        WriteAheadLog.recover(logFile, first, users);
+        BankAccount a = first.get("10000001");
+        assertEquals(102.0, a.getBalance());
+
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            a.setMutationListener(log);
+            a.deposit(4.0);
+        }
+        AccountRegistry second = new AccountRegistry();
+        WriteAheadLog.recover(logFile, second, users);
+        assertEquals(106.0, second.get("10000001").getBalance());
+        assertEquals(a.getTransactionHistory(), second.get("10000001").getTransactionHistory());
+    }
+}
@@ -0,0 +1,136 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Account Registry Tests")
+public class AccountRegistryTest {
+
+    private AccountRegistry registry;
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountRegistry();
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"12345678", "00000000", "00012345", "000012345", "999999999999"})
+    @DisplayName("Should round-trip account numbers through their numeric key")
+    void testAccountKeys_RoundTrip(String accountNumber) {
+        assertEquals(accountNumber, AccountKeys.decode(AccountKeys.encode(accountNumber)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1234567", "1234567890123", "ACC12345", "1234 5678"})
+    @DisplayName("Should reject account numbers that do not fit the key")
+    void testAccountKeys_Invalid(String accountNumber) {
+        assertEquals(AccountKeys.INVALID, AccountKeys.tryEncode(accountNumber));
+        assertThrows(IllegalArgumentException.class, () -> AccountKeys.encode(accountNumber));
+    }
+
+    @Test
+    @DisplayName("Should find, reject duplicates and remove accounts")
+    void testRegisterGetRemove() {
+        BankAccount account = new BankAccount("00012345", holder, 10.0);
+        registry.register(account);
+
+        assertAll("Registry",
+                () -> assertSame(account, registry.get("00012345")),
+                () -> assertNull(registry.get("000012345")),
+                () -> assertNull(registry.get("not-a-number")),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> registry.register(new BankAccount("00012345", holder, 0.0))),
+                () -> assertEquals(1, registry.size())
+        );
+
+        assertSame(account, registry.remove("00012345"));
+        assertNull(registry.get("00012345"));
+        assertEquals(0, registry.size());
+
+        registry.register(account);
+        assertSame(account, registry.get("00012345"));
+    }
+
+    @Test
+    @DisplayName("Should grow and keep every account reachable")
+    void testManyAccounts() {
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            registry.register(new BankAccount(String.valueOf(10_000_000 + i), holder, 0.0));
+        }
+
+        assertEquals(count, registry.size());
+        for (int i = 0; i < count; i++) {
+            assertNotNull(registry.get(String.valueOf(10_000_000 + i)));
+        }
+        AtomicInteger visited = new AtomicInteger();
+        registry.forEach(account -> visited.incrementAndGet());
+        assertEquals(count, visited.get());
+    }
+
+    @Test
+    @DisplayName("Should register a batch and report the accounts already present")
+    void testRegisterAllIfAbsent() {
+        BankAccount present = new BankAccount("10000001", holder, 1.0);
+        registry.register(present);
+        BankAccount[] batch = new BankAccount[1000];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new BankAccount(String.valueOf(10_000_000 + i), holder, 0.0);
+        }
+        BankAccount[] existing = new BankAccount[batch.length];
+
+        registry.registerAllIfAbsent(batch, batch.length, existing);
+
+        assertSame(present, existing[1]);
+        assertNull(existing[0]);
+        assertEquals(1000, registry.size());
+        assertSame(batch[999], registry.get("10000999"));
+        assertSame(present, registry.get("10000001"));
+    }
+
+    @Test
+    @DisplayName("Should serve lock-free reads while other threads register")
+    void testConcurrentRegisterAndGet() throws Exception {
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = 10_000_000 + t * perThread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    registry.register(new BankAccount(String.valueOf(base + i), holder, 0.0));
+                }
+            }));
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    BankAccount found = registry.get(String.valueOf(base + i));
+                    if (found != null) {
+                        assertEquals(String.valueOf(base + i), found.getAccountNumber());
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(threads * perThread, registry.size());
+    }
+}
@@ -0,0 +1,185 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionType;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.persistence.WriteAheadLog;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Index Tests")
+public class UserIndexTest {
+
+    private UserStore store;
+    private UserIndex index;
+
+    @BeforeEach
+    void setUp() {
+        store = new UserStore();
+        index = new UserIndex(store);
+    }
+
+    @Test
+    @DisplayName("Should find users by normalized email")
+    void testFindByEmail() {
+        int john = index.add("U001", "John Doe", "John.Doe@Email.com", 30);
+        int jane = index.add("U002", "Jane Doe", "jane@email.com", 65);
+
+        assertAll("Email lookups",
+                () -> assertEquals(john, index.findByEmail("john.doe@email.com")),
+                () -> assertEquals(john, index.findByEmail("  JOHN.DOE@EMAIL.COM ")),
+                () -> assertEquals(jane, index.findByEmail("jane@email.com")),
+                () -> assertEquals(-1, index.findByEmail("nobody@email.com")),
+                () -> assertEquals(-1, index.findByEmail(null))
+        );
+    }
+
+    @Test
+    @DisplayName("Should index users added to the store directly and across rehashes")
+    void testCatchUp() {
+        int first = store.add("U000000", "User 0", "user0@email.com", 20);
+        UserIndex late = new UserIndex(store);
+        for (int i = 1; i < 5_000; i++) {
+            store.add(String.format("U%06d", i), "User " + i, "user" + i + "@email.com", 18 + i % 90);
+        }
+
+        assertAll("Catch up",
+                () -> assertEquals(first, late.findByEmail("user0@email.com")),
+                () -> assertEquals(4_321, late.findByEmail("user4321@email.com")),
+                () -> assertEquals(countSeniors(), late.countInBand(UserIndex.AgeBand.SENIOR))
+        );
+    }
+
+    private int countSeniors() {
+        int seniors = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (store.isSenior(i)) {
+                seniors++;
+            }
+        }
+        return seniors;
+    }
+
+    @Test
+    @DisplayName("Should place users in age bands that agree with isSenior")
+    void testAgeBands() {
+        int young = index.add("U001", "Young", "young@email.com", 18);
+        int adult = index.add("U002", "Adult", "adult@email.com", 44);
+        int senior = index.add("U003", "Senior", "senior@email.com", 60);
+
+        assertAll("Bands",
+                () -> assertTrue(index.usersInBand(UserIndex.AgeBand.YOUNG_ADULT).get(young)),
+                () -> assertTrue(index.usersInBand(UserIndex.AgeBand.ADULT).get(adult)),
+                () -> assertEquals(bits(senior), index.seniors()),
+                () -> assertTrue(store.isSenior(senior)),
+                () -> assertThrows(IllegalArgumentException.class, () -> UserIndex.AgeBand.of(17))
+        );
+    }
+
+    @Test
+    @DisplayName("Should intersect seniors with holders of active accounts")
+    void testSeniorsWithActiveAccounts() {
+        User holder = new User("U001", "Holder", "holder@email.com", 70);
+        int withOpen = index.add("U001", "Holder", "holder@email.com", 70);
+        int withClosed = index.add("U002", "Closed", "closed@email.com", 80);
+        int adult = index.add("U003", "Adult", "adult@email.com", 40);
+        int noAccount = index.add("U004", "None", "none@email.com", 65);
+
+        BankAccount open = new BankAccount("10000001", holder, 100.0);
+        BankAccount closed = new BankAccount("10000002", holder, 0.0);
+        BankAccount adultAccount = new BankAccount("10000003", holder, 50.0);
+        index.linkAccount(withOpen, open);
+        index.linkAccount(withClosed, closed);
+        index.linkAccount(adult, adultAccount);
+        closed.closeAccount();
+
+        assertAll("Before reactivation",
+                () -> assertEquals(bits(withOpen), index.seniorsWithActiveAccounts()),
+                () -> assertEquals(bits(withOpen, adult), index.usersWithActiveAccount()),
+                () -> assertFalse(index.seniorsWithActiveAccounts().get(noAccount))
+        );
+
+        closed.reactivateAccount();
+        assertEquals(bits(withOpen, withClosed), index.seniorsWithActiveAccounts());
+    }
+
+    @Test
+    @DisplayName("Should keep a user active while any of their accounts is")
+    void testSeveralAccounts() {
+        User holder = new User("U001", "Holder", "holder@email.com", 70);
+        int handle = index.add("U001", "Holder", "holder@email.com", 70);
+        BankAccount first = new BankAccount("10000001", holder, 0.0);
+        BankAccount second = new BankAccount("10000002", holder, 0.0);
+        index.linkAccount(handle, first);
+        index.linkAccount(handle, second);
+
+        first.closeAccount();
+        assertTrue(index.seniorsWithActiveAccounts().get(handle));
+        second.closeAccount();
+        assertTrue(index.seniorsWithActiveAccounts().isEmpty());
+        assertThrows(IllegalStateException.class, () -> index.linkAccount(handle, first));
+    }
+
+    @Test
+    @DisplayName("Should chain after an existing mutation listener")
+    void testListenerChaining() {
+        User holder = new User("U001", "Holder", "holder@email.com", 70);
+        int handle = index.add("U001", "Holder", "holder@email.com", 70);
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+        AtomicInteger closes = new AtomicInteger();
+        account.setMutationListener((a, type, amount, sequence, timestamp) -> {
+            if (type == TransactionType.ACCOUNT_CLOSED) {
+                closes.incrementAndGet();
+            }
+        });
+
+        index.linkAccount(handle, account);
+        account.closeAccount();
+
+        assertAll("Both listeners",
+                () -> assertEquals(1, closes.get()),
+                () -> assertTrue(index.usersWithActiveAccount().isEmpty())
+        );
+    }
+
+    @Test
+    @DisplayName("Should tell apart emails whose hashes collide")
+    void testFindByEmail_HashCollision() {
+        assertEquals("an@email.com".hashCode(), "c0@email.com".hashCode());
+        int first = index.add("U001", "First", "an@email.com", 30);
+        int second = index.add("U002", "Second", "C0@email.com", 30);
+
+        assertEquals(first, index.findByEmail("an@email.com"));
+        assertEquals(second, index.findByEmail("c0@email.com"));
+    }
+
+    @Test
+    @DisplayName("Should keep receiving events after the account is attached to a write-ahead log")
+    void testListenerSurvivesLogAttach(@TempDir Path dir) throws Exception {
+        User holder = new User("U001", "Holder", "holder@email.com", 70);
+        int handle = index.add("U001", "Holder", "holder@email.com", 70);
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+        index.linkAccount(handle, account);
+
+        try (WriteAheadLog log = new WriteAheadLog(dir.resolve("accounts.wal"))) {
+            log.attach(account);
+            account.closeAccount();
+        }
+
+        assertTrue(index.usersWithActiveAccount().isEmpty());
+    }
+
+    private static BitSet bits(int... handles) {
+        BitSet bits = new BitSet();
+        for (int handle : handles) {
+            bits.set(handle);
+        }
+        return bits;
+    }
+}
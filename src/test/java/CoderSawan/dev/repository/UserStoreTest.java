@@ -0,0 +1,63 @@
+package CoderSawan.dev.repository;
+
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("User Store Tests")
+public class UserStoreTest {
+
+    private UserStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new UserStore();
+    }
+
+    @Test
+    @DisplayName("Should round-trip numeric, padded and free-form ids")
+    void testRoundTrip() {
+        int numeric = store.add("U000123", "John Doe", "john@email.com", 30);
+        int plain = store.add("42", "Jane Doe", "jane@email.com", 65);
+        int freeForm = store.add("user-abc", "Zoë Ünicode", "zoe.u@mail.example.org", 18);
+
+        User john = store.get(numeric);
+        assertAll("Users",
+                () -> assertEquals("U000123", john.getUserId()),
+                () -> assertEquals("John Doe", john.getName()),
+                () -> assertEquals("john@email.com", john.getEmail()),
+                () -> assertEquals(30, john.getAge()),
+                () -> assertEquals("42", store.getUserId(plain)),
+                () -> assertTrue(store.isSenior(plain)),
+                () -> assertEquals("user-abc", store.getUserId(freeForm)),
+                () -> assertEquals("Zoë Ünicode", store.getName(freeForm)),
+                () -> assertEquals("zoe.u@mail.example.org", store.getEmail(freeForm)),
+                () -> assertEquals(2, store.getDomainCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should apply the User constructor rules")
+    void testAdd_Validation() {
+        assertThrows(IllegalArgumentException.class, () -> store.add("U1", "Kid", "kid@email.com", 12));
+        assertThrows(IllegalArgumentException.class, () -> store.add("U1", "No Email", "no-email", 30));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should hold many customers in far fewer bytes than User objects")
+    void testBytesPerCustomer() {
+        String[] domains = {"gmail.com", "yahoo.com", "outlook.com", "bank.example.com"};
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            store.add(String.format("U%08d", i), "Customer " + i, "customer" + i + "@" + domains[i % 4], 18 + i % 80);
+        }
+
+        // A User with three Strings of this shape takes roughly 190 bytes
+        double bytesPerCustomer = (double) store.estimateBytes() / count;
+        assertTrue(bytesPerCustomer < 60, "bytes per customer: " + bytesPerCustomer);
+        assertEquals("U00199999", store.getUserId(count - 1));
+        assertEquals("customer199999@bank.example.com", store.getEmail(count - 1));
+    }
+}
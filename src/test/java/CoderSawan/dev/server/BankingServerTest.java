@@ -0,0 +1,150 @@
+package CoderSawan.dev.server;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.repository.AccountRegistry;
+import CoderSawan.dev.service.TransactionService;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Banking Server Tests")
+public class BankingServerTest {
+
+    private AccountRegistry registry;
+    private BankingServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new AccountRegistry();
+        server = new BankingServer(new InetSocketAddress("localhost", 0), registry, new TransactionService());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String pathAndQuery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void open(String accountNumber, double initialBalance) throws Exception {
+        HttpResponse<String> response = send("POST", "/accounts/open?accountNumber=" + accountNumber
+                + "&userId=U001&name=John%20Doe&email=john%40email.com&age=30&initialBalance=" + initialBalance);
+        assertEquals(201, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should open, deposit, withdraw, transfer and report history")
+    void testEndpoints_HappyPath() throws Exception {
+        open("10000001", 1000.0);
+        open("10000002", 0.0);
+
+        assertEquals("balance=1050.0", send("POST", "/accounts/deposit?accountNumber=10000001&amount=50").body());
+        assertEquals("balance=1000.0", send("POST", "/accounts/withdraw?accountNumber=10000001&amount=50").body());
+        assertEquals("balance=895.0", send("POST", "/transfers?from=10000001&to=10000002&amount=100").body());
+
+        assertAll("Queries",
+                () -> assertEquals("balance=100.0\nactive=true", send("GET", "/accounts/balance?accountNumber=10000002").body()),
+                () -> assertEquals("Deposited: 100.0\n", send("GET", "/accounts/history?accountNumber=10000002").body())
+        );
+    }
+
+    @Test
+    @DisplayName("Should map failures to HTTP status codes")
+    void testEndpoints_Errors() throws Exception {
+        open("10000001", 10.0);
+
+        assertAll("Errors",
+                () -> assertEquals(400, send("POST", "/accounts/withdraw?accountNumber=10000001&amount=50").statusCode()),
+                () -> assertEquals(400, send("POST", "/accounts/deposit?accountNumber=10000001&amount=abc").statusCode()),
+                () -> assertEquals(404, send("GET", "/accounts/balance?accountNumber=99999999").statusCode()),
+                () -> assertEquals(405, send("GET", "/accounts/deposit?accountNumber=10000001&amount=1").statusCode()),
+                () -> assertEquals(409, send("POST", "/accounts/open?accountNumber=10000001"
+                        + "&userId=U002&name=Jane&email=jane%40email.com&age=40").statusCode())
+        );
+    }
+
+    @Test
+    @DisplayName("Should answer unexpected failures with 500 and keep serving")
+    void testEndpoints_UnexpectedFailure() throws Exception {
+        registry.register(new BankAccount("10000001", new User("U001", "John Doe", "john@email.com", 30), 10.0) {
+            @Override
+            public void deposit(double amount) {
+                throw new UnsupportedOperationException("broken");
+            }
+        });
+
+        HttpResponse<String> response = send("POST", "/accounts/deposit?accountNumber=10000001&amount=1");
+        assertEquals(500, response.statusCode());
+        assertEquals("Internal server error", response.body());
+        assertEquals(200, send("GET", "/accounts/balance?accountNumber=10000001").statusCode());
+    }
+
+    @Test
+    @DisplayName("Should serve many concurrent keep-alive connections from the load generator")
+    void testLoadGenerator() throws Exception {
+        open("10000001", 10.0);
+
+        LoadGenerator.Result result = new LoadGenerator(new InetSocketAddress("localhost", server.getPort()),
+                500, 4, "/accounts/balance?accountNumber=10000001").run(60, TimeUnit.SECONDS);
+
+        assertEquals(500, result.getEstablishedConnections());
+        assertEquals(2000, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+    }
+
+    @Test
+    @DisplayName("Should count a response with a malformed Content-Length as a failure")
+    void testLoadGenerator_MalformedContentLength() throws Exception {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread responder = new Thread(() -> {
+                try (Socket socket = listener.accept()) {
+                    InputStream in = socket.getInputStream();
+                    int matched = 0;
+                    while (matched < 4) {
+                        int b = in.read();
+                        if (b < 0) {
+                            return;
+                        }
+                        matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+                    }
+                    socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: abc\r\n\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+                    in.read();
+                } catch (IOException e) {
+                    // the generator closed the connection
+                }
+            });
+            responder.setDaemon(true);
+            responder.start();
+
+            LoadGenerator.Result result = new LoadGenerator(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), listener.getLocalPort()),
+                    1, 3, "/accounts/balance?accountNumber=10000001").run(10, TimeUnit.SECONDS);
+
+            assertEquals(0, result.getSucceeded());
+            assertEquals(3, result.getFailed());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Async Transaction Service Tests")
+public class AsyncTransactionServiceTest {
+
+    private AsyncTransactionService async;
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        async = new AsyncTransactionService(new TransactionService(), 2, 4);
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    @Test
+    @DisplayName("Should complete pipelined operations with result codes")
+    void testPipelinedOperations() throws Exception {
+        AsyncTransactionService roomy = new AsyncTransactionService(new TransactionService(), 4, 1024);
+        BankAccount from = new BankAccount("10000001", holder, 1000.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+
+        List<CompletableFuture<TransactionResult>> transfers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            transfers.add(roomy.transfer(from, to, 1.0));
+        }
+        CompletableFuture.allOf(transfers.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        CompletableFuture<TransactionResult> overdraft = roomy.withdraw(from, 1000.0);
+        roomy.close();
+
+        long succeeded = transfers.stream().filter(f -> f.join() == TransactionResult.SUCCESS).count();
+        assertEquals(166, succeeded);
+        assertEquals(TransactionResult.INSUFFICIENT_FUNDS, overdraft.get());
+        assertEquals(166.0, to.getBalance());
+        assertEquals(0, roomy.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should fail fast with RejectedExecutionException when the queue is full")
+    void testBackpressure() throws Exception {
+        BankAccount from = new BankAccount("10000001", holder, 1000.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+
+        List<CompletableFuture<TransactionResult>> accepted = new ArrayList<>();
+        CompletableFuture<TransactionResult> overflow;
+        // Holding the account monitor parks both workers inside transfer
+        synchronized (from) {
+            for (int i = 0; i < 6; i++) {
+                accepted.add(async.transfer(from, to, 1.0));
+            }
+            assertEquals(0, async.getRemainingCapacity());
+            overflow = async.transfer(from, to, 1.0);
+        }
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> overflow.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, async.getRejectedCount());
+        for (CompletableFuture<TransactionResult> future : accepted) {
+            assertEquals(TransactionResult.SUCCESS, future.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Should free the slot and fail the future when an operation throws an Error")
+    void testErrorInOperation() throws Exception {
+        BankAccount broken = new BankAccount("10000001", holder, 0.0) {
+            @Override
+            public void deposit(double amount) {
+                throw new AssertionError("Broken account");
+            }
+        };
+
+        CompletableFuture<Void> future = async.deposit(broken, 1.0);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, failure.getCause());
+        assertEquals(0, async.getInFlight());
+    }
+}
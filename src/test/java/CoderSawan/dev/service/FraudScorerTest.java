@@ -0,0 +1,194 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Fraud Scorer Tests")
+public class FraudScorerTest {
+
+    private final User holder = new User("U001", "John Doe", "john@email.com", 30);
+    private BankAccount from;
+    private BankAccount usual;
+
+    @BeforeEach
+    void setUp() {
+        from = new BankAccount("10000001", holder, 1_000_000.0);
+        usual = new BankAccount("10000002", holder, 0.0);
+    }
+
+    private BankAccount stranger(int i) {
+        return new BankAccount(String.valueOf(20_000_000 + i), holder, 0.0);
+    }
+
+    // Twenty transfers of about 100 to the same receiver
+    private void train(FraudScorer scorer) {
+        for (int i = 0; i < 20; i++) {
+            scorer.afterTransfer(from, usual, 95.0 + i % 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Should score routine transfers low and spikes to new receivers high")
+    void testScore() {
+        FraudScorer scorer = new FraudScorer(FraudScorer.Mode.INLINE);
+        assertEquals(0, scorer.score(from, stranger(0), 1e6), "No history yet");
+        train(scorer);
+
+        double routine = scorer.score(from, usual, 100.0);
+        double spike = scorer.score(from, usual, 20_000.0);
+        double spikeToStranger = scorer.score(from, stranger(1), 20_000.0);
+
+        assertAll("Scores",
+                () -> assertTrue(routine < 10, "Routine " + routine),
+                () -> assertTrue(spike >= 50, "Spike " + spike),
+                () -> assertTrue(spikeToStranger > spike, "Spike to stranger " + spikeToStranger),
+                () -> assertTrue(spikeToStranger <= 100)
+        );
+    }
+
+    @Test
+    @DisplayName("Should block a fan-out of large transfers inline and alert on each")
+    void testInlineBlocksFanOut() {
+        FraudScorer scorer = new FraudScorer(FraudScorer.Mode.INLINE);
+        List<Double> alerts = new CopyOnWriteArrayList<>();
+        scorer.setAlertListener((source, target, amount, score) -> alerts.add(score));
+        TransactionService service = new TransactionService();
+        service.setFraudScorer(scorer);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(TransactionResult.SUCCESS, service.tryTransfer(from, usual, 100.0));
+        }
+
+        TransactionResult last = TransactionResult.SUCCESS;
+        int sent = 0;
+        while (last == TransactionResult.SUCCESS && sent < 20) {
+            last = service.tryTransfer(from, stranger(sent), 5_000.0);
+            sent++;
+        }
+        int moved = sent;
+        double balance = from.getBalance();
+        assertAll("Blocked",
+                () -> assertEquals(TransactionResult.FRAUD_SUSPECTED, service.tryTransfer(from, stranger(99), 5_000.0)),
+                () -> assertTrue(moved < 20, "Sent " + moved),
+                () -> assertEquals(balance, from.getBalance()),
+                () -> assertEquals(2, scorer.getBlocked()),
+                () -> assertFalse(alerts.isEmpty()),
+                () -> assertThrows(IllegalStateException.class, () -> service.transfer(from, stranger(98), 5_000.0)),
+                () -> assertEquals(TransactionResult.SUCCESS, service.tryTransfer(from, usual, 100.0))
+        );
+    }
+
+    @Test
+    @DisplayName("Should screen and learn from batch items and sequencer transfers too")
+    void testOtherTransferPaths() throws Exception {
+        FraudScorer scorer = new FraudScorer(FraudScorer.Mode.INLINE);
+        TransactionService service = new TransactionService();
+        service.setFraudScorer(scorer);
+        train(scorer);
+
+        int sent = 0;
+        BatchTransferResult result;
+        do {
+            result = service.transferBatch(List.of(new TransferRequest(from, stranger(sent++), 5_000.0)));
+        } while (result.isApplied(0) && sent < 20);
+        assertEquals("Transfer held for suspected fraud", result.getFailure(0).getMessage());
+        assertTrue(sent < 20, "Sent " + sent);
+
+        try (ShardedSequencer sequencer = new ShardedSequencer(service, 2, 16)) {
+            ExecutionException blocked = assertThrows(ExecutionException.class,
+                    () -> sequencer.transfer(from, stranger(99), 5_000.0).get(10, TimeUnit.SECONDS));
+            assertEquals("Transfer held for suspected fraud", blocked.getCause().getMessage());
+            sequencer.transfer(from, usual, 100.0).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, scorer.getBlocked());
+    }
+
+    @Test
+    @DisplayName("Should let transfers through in async mode and score them afterwards")
+    void testAsync() {
+        List<Double> alerts = new CopyOnWriteArrayList<>();
+        TransactionService service = new TransactionService();
+        try (FraudScorer scorer = new FraudScorer(FraudScorer.Mode.ASYNC)) {
+            scorer.setAlertListener((source, target, amount, score) -> alerts.add(score));
+            service.setFraudScorer(scorer);
+            for (int i = 0; i < 20; i++) {
+                service.transfer(from, usual, 100.0);
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(TransactionResult.SUCCESS, service.tryTransfer(from, stranger(i), 5_000.0));
+            }
+        }
+
+        assertAll("Scored later",
+                () -> assertFalse(alerts.isEmpty()),
+                () -> assertTrue(alerts.stream().anyMatch(score -> score >= FraudScorer.DEFAULT_BLOCK_THRESHOLD)),
+                () -> assertEquals(25, service.getFraudScorer().getScored()),
+                () -> assertEquals(0, service.getFraudScorer().getBlocked())
+        );
+    }
+
+    @Test
+    @DisplayName("Should give up on a busy profile at the deadline and validate arguments")
+    void testBudgetAndArguments() {
+        FraudScorer.Profile profile = new FraudScorer.Profile();
+        assertTrue(profile.tryLock(System.nanoTime() + 1_000));
+        assertFalse(profile.tryLock(System.nanoTime() + 1_000));
+        profile.unlock();
+
+        assertAll("Arguments",
+                () -> assertThrows(IllegalArgumentException.class, () -> new FraudScorer(null)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new FraudScorer(FraudScorer.Mode.INLINE, 90, 80, 1_000, 16)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new FraudScorer(FraudScorer.Mode.INLINE, 50, 80, 0, 16))
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep a failing alert listener away from the transfer")
+    void testListenerFailure() {
+        FraudScorer scorer = new FraudScorer(FraudScorer.Mode.INLINE);
+        scorer.setAlertListener((source, target, amount, score) -> {
+            throw new IllegalStateException("Alert sink down");
+        });
+        TransactionService service = new TransactionService();
+        service.setFraudScorer(scorer);
+        train(scorer);
+
+        TransactionResult result = assertDoesNotThrow(() -> service.tryTransfer(from, stranger(0), 5_000.0));
+
+        assertAll("Listener failure",
+                () -> assertTrue(result == TransactionResult.SUCCESS || result == TransactionResult.FRAUD_SUSPECTED),
+                () -> assertEquals(1, scorer.getFlagged()),
+                () -> assertEquals(1, scorer.getListenerFailures())
+        );
+    }
+
+    @Test
+    @DisplayName("Should forget receivers not paid for two sketch generations")
+    void testCounterpartiesAge() {
+        FraudScorer scorer = new FraudScorer(FraudScorer.Mode.INLINE);
+        train(scorer);
+        BankAccount other = stranger(0);
+        double known = scorer.score(from, usual, 100.0);
+
+        for (int i = 0; i < 200; i++) {
+            scorer.afterTransfer(from, other, 100.0);
+        }
+        double forgotten = scorer.score(from, usual, 100.0);
+
+        assertAll("Aged",
+                () -> assertTrue(known < 10, "Known " + known),
+                () -> assertTrue(forgotten >= 15, "Forgotten " + forgotten),
+                () -> assertTrue(scorer.score(from, other, 100.0) < 10)
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Idempotency Cache Tests")
+public class IdempotencyCacheTest {
+
+    private TransactionService service;
+    private BankAccount from;
+    private BankAccount to;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionService();
+        User holder = new User("U001", "John Doe", "john@email.com", 30);
+        from = new BankAccount("10000001", holder, 1000.0);
+        to = new BankAccount("10000002", holder, 0.0);
+    }
+
+    @Test
+    @DisplayName("Should apply a retried transfer only once")
+    void testTransfer_RetryAppliedOnce() {
+        service.transfer(from, to, 100.0, "key-1");
+        service.transfer(from, to, 100.0, "key-1");
+
+        assertEquals(895.0, from.getBalance());
+        assertEquals(100.0, to.getBalance());
+        assertEquals(1, service.getIdempotencyCache().getHits());
+    }
+
+    @Test
+    @DisplayName("Should replay the original failure, even once funds arrive")
+    void testTransfer_RetryReplaysFailure() {
+        Exception first = assertThrows(IllegalArgumentException.class,
+                () -> service.transfer(from, to, 2000.0, "key-1"));
+        from.deposit(5000.0);
+
+        Exception retry = assertThrows(IllegalArgumentException.class,
+                () -> service.transfer(from, to, 2000.0, "key-1"));
+        assertSame(first, retry);
+        assertEquals(6000.0, from.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different transfer")
+    void testTransfer_KeyReuse() {
+        service.transfer(from, to, 100.0, "key-1");
+
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(from, to, 200.0, "key-1"));
+        assertEquals(895.0, from.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should let a duplicate wait for the in-flight original")
+    void testExecute_InFlightDuplicate() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> original = pool.submit(() -> cache.execute("key-1", "request", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        started.await();
+        Future<?> duplicate = pool.submit(() -> cache.execute("key-1", "request", runs::incrementAndGet));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        original.get(10, TimeUnit.SECONDS);
+        duplicate.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should never evict an in-flight original to make room")
+    void testExecute_InFlightSurvivesEviction() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(64, 1, TimeUnit.HOURS);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> original = pool.submit(() -> cache.execute("key-1", "request", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        started.await();
+        // One entry per segment, so these push every finished key out many times over
+        for (int i = 0; i < 10_000; i++) {
+            cache.execute("other-" + i, "request", () -> { });
+        }
+        Future<?> retry = pool.submit(() -> cache.execute("key-1", "request", runs::incrementAndGet));
+        Thread.sleep(50);
+        assertFalse(retry.isDone());
+
+        release.countDown();
+        original.get(10, TimeUnit.SECONDS);
+        retry.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should stay within capacity and forget expired keys")
+    void testExecute_CapacityAndTtl() throws Exception {
+        IdempotencyCache bounded = new IdempotencyCache(640, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 100_000; i++) {
+            bounded.execute("key-" + i, "request", () -> { });
+        }
+        assertTrue(bounded.size() <= 640);
+
+        IdempotencyCache expiring = new IdempotencyCache(640, 20, TimeUnit.MILLISECONDS);
+        AtomicInteger runs = new AtomicInteger();
+        expiring.execute("key-1", "request", runs::incrementAndGet);
+        Thread.sleep(50);
+        expiring.execute("key-1", "request", runs::incrementAndGet);
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,105 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.persistence.WriteAheadLog;
+import CoderSawan.dev.repository.AccountRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Interest Accrual Engine Tests")
+public class InterestAccrualEngineTest {
+
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+    }
+
+    @Test
+    @DisplayName("Should credit the same simple interest as calculateInterest")
+    void testAccrue_SimpleMatchesCalculateInterest() {
+        TransactionService service = new TransactionService();
+        List<BankAccount> accounts = new ArrayList<>();
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            BankAccount account = new BankAccount(String.valueOf(10_000_000 + i), holder, 100 + i);
+            accounts.add(account);
+            expected.add(account.getBalance() + Math.round(service.calculateInterest(account, 6.0, 3) * 100) / 100.0);
+        }
+
+        InterestAccrualEngine.Summary summary = new InterestAccrualEngine(ForkJoinPool.commonPool(), 512)
+                .accrue(accounts, InterestAccrualEngine.Method.SIMPLE, 6.0, 3);
+
+        assertEquals(10_000, summary.getAccountsCredited());
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(expected.get(i), accounts.get(i).getBalance(), 0.0101);
+        }
+        assertEquals("Interest credited: 1.5", accounts.get(0).getTransactionHistory().get(1));
+    }
+
+    @Test
+    @DisplayName("Should compound monthly and skip inactive or empty accounts")
+    void testAccrue_CompoundSkipsInactive() {
+        BankAccount funded = new BankAccount("10000001", holder, 1000.0);
+        BankAccount empty = new BankAccount("10000002", holder, 0.0);
+        BankAccount closed = new BankAccount("10000003", holder, 0.0);
+        closed.closeAccount();
+
+        InterestAccrualEngine.Summary summary = new InterestAccrualEngine()
+                .accrue(List.of(funded, empty, closed), InterestAccrualEngine.Method.COMPOUND, 12.0, 12);
+
+        assertEquals(1, summary.getAccountsCredited());
+        assertEquals(1126.83, funded.getBalance());
+        assertEquals(12683, summary.getTotalInterestMinor());
+        assertEquals(0.0, empty.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should log each chunk as one group while chunks post in parallel")
+    void testAccrue_LogsOneGroupPerChunk(@TempDir Path dir) throws Exception {
+        Path logFile = dir.resolve("accounts.wal");
+        List<BankAccount> accounts = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (WriteAheadLog log = new WriteAheadLog(logFile)) {
+            for (int i = 0; i < 2_000; i++) {
+                BankAccount account = new BankAccount(String.valueOf(10_000_000 + i), holder, 100.0);
+                log.attach(account);
+                accounts.add(account);
+            }
+            long syncsBefore = log.getSyncCount();
+            InterestAccrualEngine engine = new InterestAccrualEngine(pool, 250);
+            engine.setWriteAheadLog(log);
+
+            InterestAccrualEngine.Summary summary = engine.accrue(accounts, InterestAccrualEngine.Method.SIMPLE, 12.0, 1);
+
+            assertEquals(2_000, summary.getAccountsCredited());
+            assertTrue(log.getSyncCount() - syncsBefore <= 8);
+        } finally {
+            pool.shutdown();
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, id -> id.equals("U001") ? holder : null);
+        assertEquals(2_000, registry.size());
+        registry.forEach(account -> assertEquals(101.0, account.getBalance()));
+    }
+
+    @Test
+    @DisplayName("Should validate rate and months like calculateInterest")
+    void testAccrue_InvalidArguments() {
+        InterestAccrualEngine engine = new InterestAccrualEngine();
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.accrue(List.of(), InterestAccrualEngine.Method.SIMPLE, 101, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.accrue(List.of(), InterestAccrualEngine.Method.SIMPLE, 5, 0));
+    }
+}
@@ -0,0 +1,147 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.AccountTier;
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Policy Engine Tests")
+public class PolicyEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private final User regular = new User("U001", "John Doe", "john@email.com", 30);
+    private final User senior = new User("U002", "Jane Doe", "jane@email.com", 70);
+
+    private static Properties rules(String... pairs) {
+        Properties rules = new Properties();
+        for (int i = 0; i < pairs.length; i += 2) {
+            rules.setProperty(pairs[i], pairs[i + 1]);
+        }
+        return rules;
+    }
+
+    @Test
+    @DisplayName("Should resolve the most specific rule per tier, holder and band")
+    void testCompile_Specificity() {
+        FeePolicy policy = FeePolicy.compile(rules(
+                "bands", "1000,10000",
+                "fee", "5.00",
+                "fee.band2", "10.00",
+                "fee.senior", "2.00",
+                "fee.PREMIUM", "1.00",
+                "fee.STANDARD.senior.band0", "0",
+                "limit.BUSINESS", "250000",
+                "limit.senior", "20000"));
+
+        assertAll("Policy",
+                () -> assertEquals(3, policy.getBandCount()),
+                () -> assertEquals(5.0, policy.getFee(AccountTier.STANDARD, false, 0)),
+                () -> assertEquals(10.0, policy.getFee(AccountTier.STANDARD, false, 2)),
+                () -> assertEquals(0.0, policy.getFee(AccountTier.STANDARD, true, 0)),
+                () -> assertEquals(2.0, policy.getFee(AccountTier.STANDARD, true, 1)),
+                () -> assertEquals(2.0, policy.getFee(AccountTier.BUSINESS, true, 2)),
+                () -> assertEquals(1.0, policy.getFee(AccountTier.PREMIUM, true, 2)),
+                () -> assertEquals(50000.0, policy.getMaxTransfer(AccountTier.STANDARD, false)),
+                () -> assertEquals(20000.0, policy.getMaxTransfer(AccountTier.STANDARD, true)),
+                () -> assertEquals(250000.0, policy.getMaxTransfer(AccountTier.BUSINESS, true))
+        );
+    }
+
+    @Test
+    @DisplayName("Should pick the band by amount and reject malformed rules")
+    void testCompile_BandsAndErrors() {
+        FeePolicy policy = FeePolicy.compile(rules("bands", "1000", "fee.band1", "9"));
+        BankAccount account = new BankAccount("10000001", regular, 0.0);
+
+        assertAll("Bands",
+                () -> assertEquals(5.0, policy.fee(account, 999.99)),
+                () -> assertEquals(9.0, policy.fee(account, 1000.0)),
+                () -> assertEquals(900, policy.feeMinor(account, 100_000)),
+                () -> assertThrows(IllegalArgumentException.class, () -> FeePolicy.compile(rules("fees", "1"))),
+                () -> assertThrows(IllegalArgumentException.class, () -> FeePolicy.compile(rules("fee.GOLD", "1"))),
+                () -> assertThrows(IllegalArgumentException.class, () -> FeePolicy.compile(rules("fee.band1", "1"))),
+                () -> assertThrows(IllegalArgumentException.class, () -> FeePolicy.compile(rules("fee", "-1"))),
+                () -> assertThrows(IllegalArgumentException.class, () -> FeePolicy.compile(rules("bands", "10,5")))
+        );
+    }
+
+    @Test
+    @DisplayName("Should charge fees and limits from the published policy")
+    void testTransferUsesPolicy() {
+        TransactionService service = new TransactionService();
+        BankAccount from = new BankAccount("10000001", senior, 100_000.0);
+        BankAccount business = new BankAccount("10000002", regular, 100_000.0);
+        BankAccount to = new BankAccount("10000003", regular, 0.0);
+        business.setTier(AccountTier.BUSINESS);
+
+        service.transfer(from, to, 100.0);
+        assertEquals(99_895.0, from.getBalance());
+
+        FeePolicy previous = service.getPolicyEngine().publish(FeePolicy.compile(rules(
+                "fee.senior", "1.50", "limit.BUSINESS", "80000")));
+
+        service.transfer(from, to, 100.0);
+        assertAll("After publish",
+                () -> assertSame(FeePolicy.DEFAULT, previous),
+                () -> assertEquals(99_793.5, from.getBalance()),
+                () -> assertEquals(TransactionResult.LIMIT_EXCEEDED, service.tryTransfer(from, to, 60_000.0)),
+                () -> assertEquals(TransactionResult.SUCCESS, service.tryTransfer(business, to, 60_000.0)),
+                () -> assertEquals(39_995.0, business.getBalance()),
+                () -> assertEquals(5.0, service.getTransactionFee()),
+                () -> assertThrows(IllegalArgumentException.class, () -> service.setPolicyEngine(null))
+        );
+    }
+
+    @Test
+    @DisplayName("Should reload the config file when it changes and keep the old policy on errors")
+    void testWatch_Reload() throws Exception {
+        Path config = dir.resolve("fees.properties");
+        Files.writeString(config, "fee=4.00\n");
+
+        try (PolicyEngine engine = new PolicyEngine(config)) {
+            assertEquals(4.0, engine.current().getFee(AccountTier.STANDARD, false, 0));
+            engine.watch();
+
+            replace(config, "fee=3.00\n");
+            awaitFee(engine, 3.0);
+
+            replace(config, "fee=oops\n");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (engine.getLastReloadError() == null && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertNotNull(engine.getLastReloadError());
+            assertEquals(3.0, engine.current().getFee(AccountTier.STANDARD, false, 0));
+
+            replace(config, "fee=2.00\n");
+            awaitFee(engine, 2.0);
+            assertNull(engine.getLastReloadError());
+        }
+    }
+
+    // Written beside the config and renamed over it, as a deployment would
+    private void replace(Path config, String content) throws Exception {
+        Path staged = dir.resolve("fees.properties.tmp");
+        Files.writeString(staged, content);
+        Files.move(staged, config, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void awaitFee(PolicyEngine engine, double fee) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.current().getFee(AccountTier.STANDARD, false, 0) != fee && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(fee, engine.current().getFee(AccountTier.STANDARD, false, 0));
+    }
+}
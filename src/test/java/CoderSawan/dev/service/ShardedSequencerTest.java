@@ -0,0 +1,204 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.User;
+import CoderSawan.dev.persistence.WriteAheadLog;
+import CoderSawan.dev.repository.AccountRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Sharded Sequencer Tests")
+public class ShardedSequencerTest {
+
+    private ShardedSequencer sequencer;
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        sequencer = new ShardedSequencer(new TransactionService(), 4, 64);
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.close();
+    }
+
+    // First account after 'from' that lands on a different (or the same) shard
+    private BankAccount accountOnShard(BankAccount from, boolean sameShard, double balance) {
+        for (int n = 20000000; ; n++) {
+            BankAccount candidate = new BankAccount(String.valueOf(n), holder, balance);
+            if (!candidate.getAccountNumber().equals(from.getAccountNumber())
+                    && (sequencer.shardOf(candidate) == sequencer.shardOf(from)) == sameShard) {
+                return candidate;
+            }
+        }
+    }
+
+    // Closed from outside the sequencer just as its credit arrives, after the
+    // transfer has passed validation and debited the sender
+    private BankAccount closedOnCredit(String accountNumber) {
+        return new BankAccount(accountNumber, holder, 0.0) {
+            @Override
+            public void deposit(double amount) {
+                closeAccount();
+                super.deposit(amount);
+            }
+        };
+    }
+
+    private static Throwable failureOf(CompletableFuture<Void> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    @DisplayName("Should apply deposits, withdrawals and transfers on either side of a shard boundary")
+    void testCommands() throws Exception {
+        BankAccount from = new BankAccount("10000001", holder, 1000.0);
+        BankAccount local = accountOnShard(from, true, 0.0);
+        BankAccount remote = accountOnShard(from, false, 0.0);
+
+        sequencer.deposit(from, 50.0).get(10, TimeUnit.SECONDS);
+        sequencer.withdraw(from, 25.0).get(10, TimeUnit.SECONDS);
+        sequencer.transfer(from, local, 100.0).get(10, TimeUnit.SECONDS);
+        sequencer.transfer(from, remote, 100.0).get(10, TimeUnit.SECONDS);
+
+        assertAll("Balances",
+                () -> assertEquals(815.0, from.getBalance()),
+                () -> assertEquals(100.0, local.getBalance()),
+                () -> assertEquals(100.0, remote.getBalance())
+        );
+    }
+
+    @Test
+    @DisplayName("Should report the same failures as TransactionService")
+    void testFailures() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount remote = accountOnShard(from, false, 0.0);
+
+        assertAll("Failures",
+                () -> assertEquals("Insufficient funds including transaction fee",
+                        failureOf(sequencer.transfer(from, remote, 100.0)).getMessage()),
+                () -> assertInstanceOf(IllegalArgumentException.class,
+                        failureOf(sequencer.transfer(from, from, 1.0))),
+                () -> assertInstanceOf(IllegalArgumentException.class,
+                        failureOf(sequencer.withdraw(from, 500.0)))
+        );
+        assertEquals(100.0, from.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should refund amount and fee when the remote credit is refused")
+    void testCrossShardRefund() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount remote = closedOnCredit(accountOnShard(from, false, 0.0).getAccountNumber());
+
+        assertInstanceOf(IllegalStateException.class, failureOf(sequencer.transfer(from, remote, 50.0)));
+        assertEquals(100.0, from.getBalance());
+        assertEquals(List.of("Initial deposit: 100.0", "Withdrawn: 50.0", "Withdrawn: 5.0", "Reversed: 55.0"),
+                from.getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should log both sides of cross-shard transfers so recovery leaves nothing to finish")
+    void testCrossShardLogging(@TempDir Path dir) throws Exception {
+        Path logFile = dir.resolve("accounts.wal");
+        TransactionService service = new TransactionService();
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount remote = accountOnShard(from, false, 0.0);
+        BankAccount closed = closedOnCredit(accountOnShard(remote, true, 0.0).getAccountNumber());
+        try (WriteAheadLog log = new WriteAheadLog(logFile);
+             ShardedSequencer logged = new ShardedSequencer(service, 4, 64)) {
+            service.setWriteAheadLog(log);
+            log.attach(from);
+            log.attach(remote);
+            log.attach(closed);
+
+            logged.transfer(from, remote, 20.0).get(10, TimeUnit.SECONDS);
+            assertInstanceOf(IllegalStateException.class, failureOf(logged.transfer(from, closed, 10.0)));
+            assertEquals(log.getDurablePosition(), log.getCheckpointPosition());
+        }
+
+        AccountRegistry registry = new AccountRegistry();
+        WriteAheadLog.recover(logFile, registry, id -> holder);
+        assertAll("Recovered",
+                () -> assertEquals(75.0, registry.get("10000001").getBalance()),
+                () -> assertEquals(20.0, registry.get(remote.getAccountNumber()).getBalance()),
+                () -> assertEquals(from.getTransactionHistory(), registry.get("10000001").getTransactionHistory())
+        );
+    }
+
+    @Test
+    @DisplayName("Should conserve money under concurrent cross-shard transfers")
+    void testConcurrentTransfers() throws Exception {
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(new BankAccount(String.valueOf(10000000 + i), holder, 10000.0));
+        }
+
+        List<List<CompletableFuture<Void>>> results = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            List<CompletableFuture<Void>> own = new ArrayList<>();
+            results.add(own);
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    BankAccount from = accounts.get((seed * 7 + i) % 16);
+                    BankAccount to = accounts.get((seed * 3 + i * 5 + 1) % 16);
+                    if (from != to) {
+                        own.add(sequencer.transfer(from, to, 1.0));
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (List<CompletableFuture<Void>> own : results) {
+            CompletableFuture.allOf(own.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        }
+
+        long transfers = accounts.stream()
+                .mapToLong(a -> a.getTransactionHistory().stream().filter(h -> h.startsWith("Deposited")).count())
+                .sum();
+        double total = accounts.stream().mapToDouble(BankAccount::getBalance).sum();
+        assertEquals(16 * 10000.0 - transfers * 5.0, total, 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should fail only the offending command when it throws an Error")
+    void testErrorKeepsShardAlive() throws Exception {
+        BankAccount broken = new BankAccount("10000001", holder, 100.0) {
+            @Override
+            public void deposit(double amount) {
+                throw new AssertionError("broken account");
+            }
+        };
+        BankAccount healthy = accountOnShard(broken, true, 0.0);
+
+        assertInstanceOf(AssertionError.class, failureOf(sequencer.deposit(broken, 1.0)));
+        sequencer.deposit(healthy, 5.0).get(10, TimeUnit.SECONDS);
+        assertEquals(5.0, healthy.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject commands after close")
+    void testClosed() {
+        BankAccount account = new BankAccount("10000001", holder, 100.0);
+        sequencer.close();
+
+        assertThrows(IllegalStateException.class, () -> sequencer.deposit(account, 1.0));
+    }
+}
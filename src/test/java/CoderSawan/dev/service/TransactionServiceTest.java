@@ -1,2 +1,359 @@
-package CoderSawan.dev.service;public class TransactionServiceTest {
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.HistoryEntry;
+import CoderSawan.dev.model.HistoryPage;
+import CoderSawan.dev.model.Money;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transaction Service Tests")
+public class TransactionServiceTest {
+
+    private TransactionService service;
+    private User holder;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionService();
+        holder = new User("U001", "John Doe", "john@email.com", 30);
+    }
+
+    // ================Transfer - Valid Cases===========
+
+    @Test
+    @DisplayName("Should move amount and deduct fee on transfer")
+    void testTransfer_Valid() {
+        BankAccount from = new BankAccount("10000001", holder, 1000.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+
+        service.transfer(from, to, 100.0);
+
+        assertAll("Transfer",
+                () -> assertEquals(895.0, from.getBalance()),
+                () -> assertEquals(100.0, to.getBalance())
+        );
+    }
+
+    //====Transfer - Invalid Cases========
+
+    @Test
+    @DisplayName("Should reject transfer when fee cannot be covered")
+    void testTransfer_InsufficientFundsWithFee() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> service.transfer(from, to, 100.0));
+        assertEquals("Insufficient funds including transaction fee", exception.getMessage());
+        assertEquals(100.0, from.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject transfer to an inactive account")
+    void testTransfer_InactiveAccount() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+        to.closeAccount();
+
+        assertThrows(IllegalStateException.class, () -> service.transfer(from, to, 10.0));
+    }
+
+    @Test
+    @DisplayName("Should reject transfer above the maximum limit")
+    void testTransfer_AboveLimit() {
+        BankAccount from = new BankAccount("10000001", holder, 100000.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> service.transfer(from, to, 50000.01));
+        assertEquals("Transfer amount exceeds maximum limit: 50000.0", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should report an inactive account before an invalid amount")
+    void testTransfer_InactiveBeforeAmount() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+        to.closeAccount();
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> service.transfer(from, to, -1.0));
+        assertEquals("Both accounts must be active", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should report transfer rejections as result codes without throwing")
+    void testTryTransfer_ResultCodes() {
+        BankAccount from = new BankAccount("10000001", holder, 100.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+        BankAccount closed = new BankAccount("10000003", holder, 0.0);
+        closed.closeAccount();
+
+        assertAll("Results",
+                () -> assertEquals(TransactionResult.INSUFFICIENT_FUNDS, service.tryTransfer(from, to, 100.0)),
+                () -> assertEquals(TransactionResult.LIMIT_EXCEEDED, service.tryTransfer(from, to, 50000.01)),
+                () -> assertEquals(TransactionResult.SAME_ACCOUNT, service.tryTransfer(from, from, 1.0)),
+                () -> assertEquals(TransactionResult.INVALID_ACCOUNT, service.tryTransfer(null, to, 1.0)),
+                () -> assertEquals(TransactionResult.INVALID_AMOUNT, service.tryTransfer(from, to, 0.0)),
+                () -> assertEquals(TransactionResult.INACTIVE_ACCOUNT, service.tryTransfer(from, closed, 1.0)),
+                () -> assertEquals(100.0, from.getBalance()),
+                () -> assertEquals(TransactionResult.SUCCESS, service.tryTransfer(from, to, 95.0)),
+                () -> assertEquals(0.0, from.getBalance())
+        );
+    }
+
+    //====Transfer - Concurrency========
+
+    @Test
+    @DisplayName("Should not deadlock or lose money on opposing concurrent transfers")
+    void testTransfer_ConcurrentOpposingTransfers() throws Exception {
+        BankAccount a = new BankAccount("10000001", holder, 100000.0);
+        BankAccount b = new BankAccount("10000002", holder, 100000.0);
+        int threads = 8;
+        int transfersPerThread = 500;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean forward = t % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    if (forward) {
+                        service.transfer(a, b, 1.0);
+                    } else {
+                        service.transfer(b, a, 1.0);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        double fees = threads * transfersPerThread * service.getTransactionFee();
+        assertEquals(200000.0 - fees, a.getBalance() + b.getBalance(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should never overdraw when many threads drain one account")
+    void testTransfer_ConcurrentDrainNeverOverdraws() throws Exception {
+        BankAccount from = new BankAccount("10000001", holder, 1050.0);
+        int threads = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            BankAccount to = new BankAccount("2000000" + t, holder, 0.0);
+            futures.add(pool.submit(() -> {
+                int succeeded = 0;
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        service.transfer(from, to, 100.0);
+                        succeeded++;
+                    } catch (IllegalArgumentException e) {
+                        // insufficient funds
+                    }
+                }
+                return succeeded;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10, total);
+        assertEquals(0.0, from.getBalance(), 0.0001);
+    }
+
+    // ================Batch Transfers===========
+
+    @Test
+    @DisplayName("Should apply a batch and report a result per item")
+    void testTransferBatch_PerItemResults() {
+        BankAccount payer = new BankAccount("10000001", holder, 250.0);
+        BankAccount a = new BankAccount("10000002", holder, 0.0);
+        BankAccount b = new BankAccount("10000003", holder, 0.0);
+
+        BatchTransferResult result = service.transferBatch(List.of(
+                new TransferRequest(payer, a, 100.0),
+                new TransferRequest(payer, b, 100.0),
+                new TransferRequest(payer, a, 100.0),   // fee of the first two leaves too little
+                new TransferRequest(payer, b, 60000.0)  // above the per-item limit
+        ));
+
+        assertAll("Batch",
+                () -> assertTrue(result.isApplied(0)),
+                () -> assertTrue(result.isApplied(1)),
+                () -> assertEquals("Insufficient funds including transaction fee", result.getFailure(2).getMessage()),
+                () -> assertInstanceOf(IllegalArgumentException.class, result.getFailure(3)),
+                () -> assertEquals(2, result.getAppliedCount()),
+                () -> assertEquals(40.0, payer.getBalance()),
+                () -> assertEquals(100.0, a.getBalance()),
+                () -> assertEquals(100.0, b.getBalance())
+        );
+    }
+
+    @Test
+    @DisplayName("Should let credits earlier in a batch fund later debits")
+    void testTransferBatch_CreditsFundLaterDebits() {
+        BankAccount a = new BankAccount("10000001", holder, 105.0);
+        BankAccount b = new BankAccount("10000002", holder, 0.0);
+        BankAccount c = new BankAccount("10000003", holder, 0.0);
+
+        BatchTransferResult result = service.transferBatch(List.of(
+                new TransferRequest(a, b, 100.0),
+                new TransferRequest(b, c, 95.0)
+        ));
+
+        assertEquals(2, result.getAppliedCount());
+        assertEquals(0.0, a.getBalance());
+        assertEquals(0.0, b.getBalance());
+        assertEquals(95.0, c.getBalance());
+        assertEquals(List.of("Deposited: 100.0", "Withdrawn: 95.0", "Withdrawn: 5.0"), b.getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should handle batches touching more accounts than one lock group")
+    void testTransferBatch_ManyAccounts() {
+        BankAccount payer = new BankAccount("10000000", holder, 1_000_000.0);
+        List<TransferRequest> requests = new ArrayList<>();
+        List<BankAccount> payees = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            BankAccount payee = new BankAccount(String.valueOf(20000000 + i), holder, 0.0);
+            payees.add(payee);
+            requests.add(new TransferRequest(payer, payee, 10.0));
+        }
+
+        BatchTransferResult result = service.transferBatch(requests);
+
+        assertEquals(1000, result.getAppliedCount());
+        assertEquals(1_000_000.0 - 1000 * 15.0, payer.getBalance(), 0.0001);
+        assertTrue(payees.stream().allMatch(p -> p.getBalance() == 10.0));
+    }
+
+    @Test
+    @DisplayName("Should reject batch items that round to zero cents")
+    void testTransferBatch_SubCentAmount() {
+        BankAccount payer = new BankAccount("10000001", holder, 100.0);
+        BankAccount payee = new BankAccount("10000002", holder, 0.0);
+
+        BatchTransferResult result = service.transferBatch(List.of(new TransferRequest(payer, payee, 0.001)));
+
+        assertEquals("Transfer amount must be positive", result.getFailure(0).getMessage());
+        assertEquals(100.0, payer.getBalance());
+        assertEquals(List.of("Initial deposit: 100.0"), payer.getTransactionHistory());
+    }
+
+    @Test
+    @DisplayName("Should post every account of a group even when a listener fails")
+    void testTransferBatch_ListenerFailure() {
+        BankAccount payer = new BankAccount("10000001", holder, 100.0);
+        BankAccount a = new BankAccount("10000002", holder, 0.0);
+        BankAccount b = new BankAccount("10000003", holder, 0.0);
+        payer.setMutationListener((account, type, amountMinor, sequence, timestamp) -> {
+            throw new RuntimeException("log failed");
+        });
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.transferBatch(List.of(
+                new TransferRequest(payer, a, 20.0),
+                new TransferRequest(payer, b, 30.0)
+        )));
+
+        assertAll("Posted",
+                () -> assertEquals("log failed", e.getMessage()),
+                () -> assertEquals(40.0, payer.getBalance()),
+                () -> assertEquals(payer.getBalanceMinor(), journalSum(payer)),
+                () -> assertEquals(20.0, a.getBalance()),
+                () -> assertEquals(30.0, b.getBalance()),
+                // Returns only if no reservation was left pending
+                () -> assertEquals(4000, payer.snapshot().getBalanceMinor())
+        );
+    }
+
+    @Test
+    @DisplayName("Should leave no journal entries behind when a projected debit is spent concurrently")
+    void testTransferBatch_DebitRacesDirectWithdrawal() {
+        for (int round = 0; round < 20; round++) {
+            BankAccount payee = new BankAccount("20000000", holder, 0.0);
+            List<BankAccount> payers = new ArrayList<>();
+            List<TransferRequest> requests = new ArrayList<>();
+            int stale = round % 8;
+            for (int i = 0; i < 8; i++) {
+                String number = String.valueOf(10000000 + i);
+                BankAccount payer = i == stale ? new DrainedAfterProjection(number, holder, 100.0)
+                        : new BankAccount(number, holder, 100.0);
+                payers.add(payer);
+                requests.add(new TransferRequest(payer, payee, 50.0));
+            }
+            ((DrainedAfterProjection) payers.get(stale)).armed = true;
+
+            BatchTransferResult result = service.transferBatch(requests);
+
+            assertEquals(7, result.getAppliedCount());
+            assertFalse(result.isApplied(stale));
+            assertEquals(350.0, payee.getBalance());
+            for (BankAccount account : payers) {
+                assertEquals(account.getBalanceMinor(), journalSum(account), account.getAccountNumber());
+            }
+            assertEquals(payee.getBalanceMinor(), journalSum(payee));
+        }
+    }
+
+    private static long journalSum(BankAccount account) {
+        long sum = 0;
+        for (HistoryEntry entry : account.queryHistory(0, Long.MAX_VALUE, null, HistoryPage.START, 1000).getEntries()) {
+            switch (entry.getType()) {
+                case INITIAL_DEPOSIT, DEPOSIT, INTEREST, REVERSAL -> sum += entry.getAmountMinor();
+                case WITHDRAWAL, FEE -> sum -= entry.getAmountMinor();
+                default -> { }
+            }
+        }
+        return sum;
+    }
+
+    // Spends its whole balance without taking the monitor right after the
+    // batch has projected it, as a lock-free withdrawal racing the batch would
+    private static final class DrainedAfterProjection extends BankAccount {
+        private boolean armed;
+
+        private DrainedAfterProjection(String accountNumber, User holder, double balance) {
+            super(accountNumber, holder, balance);
+        }
+
+        @Override
+        public long getBalanceMinor() {
+            long balance = super.getBalanceMinor();
+            if (armed) {
+                armed = false;
+                tryWithdraw(Money.toMajor(balance));
+            }
+            return balance;
+        }
+    }
+
+    // ================Interest===========
+
+    @Test
+    @DisplayName("Should calculate simple interest")
+    void testCalculateInterest() {
+        BankAccount account = new BankAccount("10000001", holder, 1200.0);
+
+        assertEquals(60.0, service.calculateInterest(account, 10.0, 6), 0.0001);
+    }
 }
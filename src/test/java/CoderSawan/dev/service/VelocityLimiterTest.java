@@ -0,0 +1,188 @@
+package CoderSawan.dev.service;
+
+import CoderSawan.dev.model.BankAccount;
+import CoderSawan.dev.model.TransactionResult;
+import CoderSawan.dev.model.User;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Velocity Limiter Tests")
+public class VelocityLimiterTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final AtomicLong clock = new AtomicLong(1_790_812_800_000L);
+    private final User holder = new User("U001", "John Doe", "john@email.com", 30);
+
+    @Test
+    @DisplayName("Should slide the hourly window a minute at a time")
+    void testHourlyWindow() {
+        VelocityLimiter limiter = new VelocityLimiter(1_000, VelocityLimiter.UNLIMITED,
+                VelocityLimiter.UNLIMITED, VelocityLimiter.UNLIMITED, clock::get);
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+
+        assertTrue(limiter.tryAcquire(account, 600, clock.get()));
+        clock.addAndGet(30 * MINUTE);
+        assertTrue(limiter.tryAcquire(account, 400, clock.get()));
+        assertFalse(limiter.tryAcquire(account, 1, clock.get()));
+        assertEquals(1_000, limiter.getHourlyTotal(account));
+
+        // The first 600 leaves the window an hour after it was sent
+        clock.addAndGet(30 * MINUTE);
+        assertTrue(limiter.tryAcquire(account, 600, clock.get()));
+        assertEquals(1_000, limiter.getHourlyTotal(account));
+    }
+
+    @Test
+    @DisplayName("Should enforce the daily limit and the holder's limits across accounts")
+    void testDailyAndUserLimits() {
+        VelocityLimiter limiter = new VelocityLimiter(VelocityLimiter.UNLIMITED, 5_000,
+                VelocityLimiter.UNLIMITED, 8_000, clock::get);
+        BankAccount first = new BankAccount("10000001", holder, 0.0);
+        BankAccount second = new BankAccount("10000002", holder, 0.0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(first, 1_000, clock.get()));
+            clock.addAndGet(2 * HOUR);
+        }
+        assertFalse(limiter.tryAcquire(first, 1, clock.get()));
+        assertTrue(limiter.tryAcquire(second, 3_000, clock.get()));
+        assertFalse(limiter.tryAcquire(second, 1, clock.get()));
+
+        assertAll("Totals",
+                () -> assertEquals(5_000, limiter.getDailyTotal(first)),
+                () -> assertEquals(3_000, limiter.getDailyTotal(second)),
+                () -> assertEquals(8_000, limiter.getUserDailyTotal("U001"))
+        );
+
+        clock.addAndGet(15 * HOUR);
+        assertTrue(limiter.tryAcquire(first, 1_000, clock.get()));
+    }
+
+    @Test
+    @DisplayName("Should give back released amounts")
+    void testRelease() {
+        VelocityLimiter limiter = new VelocityLimiter(1_000, 1_000, 1_000, 1_000, clock::get);
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+
+        long now = clock.get();
+        assertTrue(limiter.tryAcquire(account, 1_000, now));
+        limiter.release(account, 1_000, now);
+
+        assertAll("Released",
+                () -> assertEquals(0, limiter.getHourlyTotal(account)),
+                () -> assertEquals(0, limiter.getUserDailyTotal("U001")),
+                () -> assertTrue(limiter.tryAcquire(account, 1_000, now))
+        );
+    }
+
+    @Test
+    @DisplayName("Should never let concurrent senders overshoot the limit")
+    void testConcurrentAcquire() throws Exception {
+        VelocityLimiter limiter = new VelocityLimiter(10_000, VelocityLimiter.UNLIMITED,
+                VelocityLimiter.UNLIMITED, VelocityLimiter.UNLIMITED, clock::get);
+        BankAccount account = new BankAccount("10000001", holder, 0.0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        limiter.tryAcquire(account, 7, clock.get());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = limiter.getHourlyTotal(account);
+        assertTrue(total <= 10_000, "Total " + total);
+        assertTrue(total > 10_000 - 7 * 8, "Total " + total);
+    }
+
+    @Test
+    @DisplayName("Should reject transfers over the limit without moving money")
+    void testTransferPath() {
+        TransactionService service = new TransactionService();
+        service.setVelocityLimiter(new VelocityLimiter(100.0, 150.0, 1_000.0, 1_000.0));
+        BankAccount from = new BankAccount("10000001", holder, 1_000.0);
+        BankAccount to = new BankAccount("10000002", holder, 0.0);
+        BankAccount poor = new BankAccount("10000003", holder, 10.0);
+
+        assertAll("Transfers",
+                () -> assertEquals(TransactionResult.SUCCESS, service.tryTransfer(from, to, 60.0)),
+                () -> assertEquals(TransactionResult.VELOCITY_LIMIT_EXCEEDED, service.tryTransfer(from, to, 50.0)),
+                () -> assertEquals(935.0, from.getBalance()),
+                () -> assertThrows(IllegalStateException.class, () -> service.transfer(from, to, 41.0)),
+                () -> assertEquals(TransactionResult.INSUFFICIENT_FUNDS, service.tryTransfer(poor, to, 50.0)),
+                () -> assertEquals(0, service.getVelocityLimiter().getHourlyTotal(poor)),
+                () -> assertEquals(6_000, service.getVelocityLimiter().getHourlyTotal(from))
+        );
+
+        List<TransferRequest> batch = List.of(
+                new TransferRequest(from, to, 40.0),
+                new TransferRequest(from, to, 1.0));
+        BatchTransferResult result = service.transferBatch(batch);
+        assertAll("Batch",
+                () -> assertTrue(result.isApplied(0)),
+                () -> assertFalse(result.isApplied(1)),
+                () -> assertInstanceOf(IllegalStateException.class, result.getFailure(1)),
+                () -> assertEquals(10_000, service.getVelocityLimiter().getHourlyTotal(from))
+        );
+    }
+
+    @Test
+    @DisplayName("Should release a refunded transfer from the bucket it was counted in")
+    void testReleaseAtAcquisitionTime() {
+        TransactionService service = new TransactionService();
+        service.setVelocityLimiter(new VelocityLimiter(10_000, VelocityLimiter.UNLIMITED,
+                VelocityLimiter.UNLIMITED, VelocityLimiter.UNLIMITED, clock::get));
+        BankAccount from = new BankAccount("10000001", holder, 1_000.0);
+
+        long acquiredAt = service.velocityNow();
+        assertEquals(TransactionResult.SUCCESS, service.debitWithFee(from, 60.0, 5.0, acquiredAt));
+        // The credit failed on another shard a minute later
+        clock.addAndGet(MINUTE + 1);
+        service.releaseVelocity(from, 60.0, acquiredAt);
+
+        assertEquals(0, service.getVelocityLimiter().getHourlyTotal(from));
+    }
+
+    @Test
+    @DisplayName("Should drop windows with nothing sent in the last day")
+    void testEvictsIdleWindows() {
+        VelocityLimiter limiter = new VelocityLimiter(VelocityLimiter.UNLIMITED, 1_000,
+                VelocityLimiter.UNLIMITED, VelocityLimiter.UNLIMITED, clock::get);
+        BankAccount idle = new BankAccount("10000001", holder, 0.0);
+        BankAccount busy = new BankAccount("10000002", new User("U002", "Jane Doe", "jane@email.com", 30), 0.0);
+
+        assertTrue(limiter.tryAcquire(idle, 1_000, clock.get()));
+        clock.addAndGet(2 * HOUR);
+        assertTrue(limiter.tryAcquire(busy, 100, clock.get()));
+        assertEquals(4, limiter.size());
+
+        // The sweep on the next transfer after a day drops the idle account and its holder
+        clock.addAndGet(23 * HOUR);
+        assertTrue(limiter.tryAcquire(busy, 100, clock.get()));
+        assertAll("Evicted",
+                () -> assertEquals(2, limiter.size()),
+                () -> assertEquals(0, limiter.getDailyTotal(idle)),
+                () -> assertEquals(200, limiter.getDailyTotal(busy))
+        );
+        assertTrue(limiter.tryAcquire(idle, 1_000, clock.get()));
+        assertFalse(limiter.tryAcquire(idle, 1, clock.get()));
+    }
+}
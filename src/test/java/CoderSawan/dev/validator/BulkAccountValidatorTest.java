@@ -0,0 +1,70 @@
+package CoderSawan.dev.validator;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulk Account Validator Tests")
+class BulkAccountValidatorTest {
+
+    private BulkAccountValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new BulkAccountValidator();
+    }
+
+    @Test
+    @DisplayName("Should flag the same account numbers as the single-value validator")
+    void testInvalidAccountNumbers_MatchesSingleValue() {
+        String records = "12345678\n1234567\n  123456789012 \r\nABC12345\n\n1234567890123\n00000000";
+
+        BitSet invalid = validator.invalidAccountNumbers(records);
+
+        AccountValidator single = new AccountValidator();
+        String[] lines = records.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(!single.isValidAccountNumber(lines[i]), invalid.get(i), "record " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should flag invalid emails from a byte buffer")
+    void testInvalidEmails_ByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("a@b.com\n@b.com\nab.com\nuser@\n x@y \n".getBytes(StandardCharsets.US_ASCII));
+
+        BitSet invalid = validator.invalidEmails(buffer);
+
+        assertEquals(BitSet.valueOf(new long[]{0b01110}), invalid);
+    }
+
+    @Test
+    @DisplayName("Should give the same answer when split across many chunks")
+    void testInvalidAccountNumbers_Chunked(@TempDir Path dir) throws Exception {
+        StringBuilder records = new StringBuilder();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 50_000; i++) {
+            if (i % 7 == 0) {
+                records.append("BAD").append(i);
+                expected.set(i);
+            } else {
+                records.append(10_000_000 + i);
+            }
+            records.append('\n');
+        }
+        Path file = dir.resolve("accounts.txt");
+        Files.writeString(file, records, StandardCharsets.US_ASCII);
+
+        BulkAccountValidator chunked = new BulkAccountValidator(4096);
+
+        assertEquals(expected, chunked.invalidAccountNumbers(records));
+        assertEquals(expected, chunked.invalidAccountNumbers(file));
+    }
+}